@@ -0,0 +1,248 @@
+package com.salescore.vrp_tsp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Replays a seeded request mix against the solve endpoints and fails when latency, throughput, cost, unassigned jobs
+// or errors regress against baseline.json. Run from demo/ with ./mvnw -f loadtest/pom.xml verify, see the pom.
+
+public final class LoadTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        int requests = Integer.getInteger("loadtest.requests", 1000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 8);
+        long seed = Long.getLong("loadtest.seed", 42L);
+        File baselineFile = new File(System.getProperty("loadtest.baseline", "baseline.json"));
+        File reportFile = new File(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+        boolean updateBaseline = Boolean.parseBoolean(System.getProperty("loadtest.updateBaseline", "false"));
+        double latencyTolerance = Double.parseDouble(System.getProperty("loadtest.latencyTolerance", "0.20"));
+        double throughputTolerance = Double.parseDouble(System.getProperty("loadtest.throughputTolerance", "0.15"));
+        double costTolerance = Double.parseDouble(System.getProperty("loadtest.costTolerance", "0.02"));
+        int minSamples = Integer.getInteger("loadtest.minSamples", 40);
+        boolean ci = Boolean.parseBoolean(System.getProperty("loadtest.ci", "false")) || System.getenv("CI") != null;
+
+        RequestGenerator generator = new RequestGenerator(seed, Long.toString(System.currentTimeMillis(), 36));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new ScenarioStats());
+        }
+
+        // Closed-loop load: every client thread sends its next request as soon as the previous one returns
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            clients.execute(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    Scenario scenario = generator.scenario(i);
+                    send(client, baseUrl, scenario, generator.request(i), stats.get(scenario));
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.DAYS);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        ObjectNode report = report(stats, requests, concurrency, seed, requests / elapsedSeconds);
+        reportFile.getParentFile().mkdirs();
+        MAPPER.writeValue(reportFile, report);
+        System.out.println(MAPPER.writeValueAsString(report));
+
+        if (updateBaseline) {
+            MAPPER.writeValue(baselineFile, report);
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+        if (!baselineFile.exists()) {
+            String missing = "No baseline at " + baselineFile + ", run with -Dloadtest.updateBaseline=true to record one";
+            if (ci) {
+                throw new IllegalStateException(missing);
+            }
+            System.out.println(missing);
+            return;
+        }
+
+        List<String> regressions = compare(MAPPER.readTree(baselineFile), report, latencyTolerance, throughputTolerance,
+                costTolerance, minSamples);
+        if (!regressions.isEmpty()) {
+            regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+            throw new IllegalStateException("Load test regressed against " + baselineFile + ": " + regressions);
+        }
+        System.out.println("No regressions against " + baselineFile);
+    }
+
+    private static void send(HttpClient client, String baseUrl, Scenario scenario, ObjectNode body, ScenarioStats stats) {
+        String path = switch (scenario.getEndpoint()) {
+            case VRP -> "/api/vrp/solve";
+            case TSP_DISTANCE -> "/api/tsp/solve?method=distance";
+            case TSP_DURATION -> "/api/tsp/solve?method=duration";
+        };
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofMinutes(10))
+                    .header("Content-Type", "application/json")
+                    .header("X-Tenant-Id", "loadtest")
+                    .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            double latencyMs = (System.nanoTime() - start) / 1e6;
+            if (response.statusCode() != 200) {
+                stats.failed();
+                return;
+            }
+
+            JsonNode solution = MAPPER.readTree(response.body()).path("solution");
+            double cost = switch (scenario.getEndpoint()) {
+                case VRP -> solution.path("costs").asDouble();
+                case TSP_DISTANCE -> solution.path("distance").asDouble();
+                case TSP_DURATION -> solution.path("time").asDouble();
+            };
+            stats.succeeded(latencyMs, cost, solution.path("unassigned").size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.failed();
+        } catch (Exception e) {
+            stats.failed();
+        }
+    }
+
+    private static ObjectNode report(Map<Scenario, ScenarioStats> stats, int requests, int concurrency, long seed, double throughput) {
+        ObjectNode report = MAPPER.createObjectNode();
+        report.put("requests", requests);
+        report.put("concurrency", concurrency);
+        report.put("seed", seed);
+        report.put("throughput", throughput);
+        ObjectNode scenarios = report.putObject("scenarios");
+        stats.forEach((scenario, scenarioStats) -> {
+            if (scenarioStats.count() + scenarioStats.errors() > 0) {
+                scenarios.set(scenario.name(), scenarioStats.toJson());
+            }
+        });
+        return report;
+    }
+
+    static List<String> compare(JsonNode baseline, ObjectNode report, double latencyTolerance,
+                                double throughputTolerance, double costTolerance, int minSamples) {
+        List<String> regressions = new ArrayList<>();
+        for (String setting : new String[]{"requests", "concurrency", "seed"}) {
+            if (!baseline.path(setting).equals(report.path(setting))) {
+                regressions.add(setting + " differs from the baseline (" + baseline.path(setting) + " vs " + report.path(setting)
+                        + "), record a new baseline for these settings");
+                return regressions;
+            }
+        }
+
+        double baseThroughput = baseline.path("throughput").asDouble();
+        if (report.path("throughput").asDouble() < baseThroughput * (1 - throughputTolerance)) {
+            regressions.add(String.format("throughput %.2f req/s < baseline %.2f req/s", report.path("throughput").asDouble(), baseThroughput));
+        }
+
+        baseline.path("scenarios").fields().forEachRemaining(entry -> {
+            String name = entry.getKey();
+            JsonNode base = entry.getValue();
+            JsonNode current = report.path("scenarios").path(name);
+            if (current.isMissingNode()) {
+                regressions.add(name + " missing from the run");
+                return;
+            }
+            if (current.path("errors").asInt() > base.path("errors").asInt()) {
+                regressions.add(name + " errors " + current.path("errors").asInt() + " > baseline " + base.path("errors").asInt());
+            }
+            if (Math.min(current.path("count").asInt(), base.path("count").asInt()) < minSamples) {
+                System.out.println("NOTE " + name + " has fewer than " + minSamples + " samples, latency not compared");
+            } else {
+                for (String percentile : new String[]{"p50", "p95", "p99"}) {
+                    // Below 100 samples the nearest-rank p99 is the slowest request
+                    if (percentile.equals("p99") && Math.min(current.path("count").asInt(), base.path("count").asInt()) < 100) {
+                        continue;
+                    }
+                    double latency = current.path(percentile + "Ms").asDouble();
+                    double baseLatency = base.path(percentile + "Ms").asDouble();
+                    if (latency > baseLatency * (1 + latencyTolerance)) {
+                        regressions.add(String.format("%s %s %.0f ms > baseline %.0f ms", name, percentile, latency, baseLatency));
+                    }
+                }
+            }
+            if (current.path("meanCost").asDouble() > base.path("meanCost").asDouble() * (1 + costTolerance)) {
+                regressions.add(String.format("%s mean cost %.1f > baseline %.1f", name, current.path("meanCost").asDouble(), base.path("meanCost").asDouble()));
+            }
+            if (current.path("unassigned").asInt() > base.path("unassigned").asInt()) {
+                regressions.add(name + " unassigned jobs " + current.path("unassigned").asInt() + " > baseline " + base.path("unassigned").asInt());
+            }
+        });
+        return regressions;
+    }
+
+    private static final class ScenarioStats {
+        private final List<Double> latencies = new ArrayList<>();
+        private double totalCost;
+        private int unassigned;
+        private int errors;
+
+        synchronized void succeeded(double latencyMs, double cost, int unassignedJobs) {
+            latencies.add(latencyMs);
+            totalCost += cost;
+            unassigned += unassignedJobs;
+        }
+
+        synchronized void failed() {
+            errors++;
+        }
+
+        synchronized int count() {
+            return latencies.size();
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+
+        synchronized ObjectNode toJson() {
+            List<Double> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            ObjectNode json = MAPPER.createObjectNode();
+            json.put("count", sorted.size());
+            json.put("errors", errors);
+            json.put("p50Ms", percentile(sorted, 0.50));
+            json.put("p95Ms", percentile(sorted, 0.95));
+            json.put("p99Ms", percentile(sorted, 0.99));
+            json.put("meanCost", sorted.isEmpty() ? 0 : totalCost / sorted.size());
+            json.put("unassigned", unassigned);
+            return json;
+        }
+
+        // Nearest-rank percentile
+        private static double percentile(List<Double> sorted, double p) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p * sorted.size());
+            return sorted.get(Math.max(0, rank - 1));
+        }
+    }
+}
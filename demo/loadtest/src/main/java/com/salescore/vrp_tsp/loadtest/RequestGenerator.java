@@ -0,0 +1,176 @@
+package com.salescore.vrp_tsp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.SplittableRandom;
+
+// Requests around Lao towns, so stops land on the bundled extract; request i depends only on the seed and i
+
+public class RequestGenerator {
+    // Depot towns: Vientiane, Luang Prabang, Savannakhet, Pakse, Thakhek
+    private static final double[][] TOWNS = {
+            {17.9757, 102.6331},
+            {19.8856, 102.1347},
+            {16.5565, 104.7528},
+            {15.1202, 105.7990},
+            {17.4103, 104.8307}
+    };
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final long SHIFT_START = 8 * 3600;  // 08:00, seconds
+    private static final long SHIFT_END = 18 * 3600;   // 18:00
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final long seed;
+    private final String runId;
+    private final Scenario[] mix;
+
+    public RequestGenerator(long seed, String runId) {
+        this.seed = seed;
+        this.runId = runId;
+        int total = 0;
+        for (Scenario scenario : Scenario.values()) {
+            total += scenario.getWeight();
+        }
+        this.mix = new Scenario[total];
+        int k = 0;
+        for (Scenario scenario : Scenario.values()) {
+            for (int w = 0; w < scenario.getWeight(); w++) {
+                mix[k++] = scenario;
+            }
+        }
+    }
+
+    public Scenario scenario(int i) {
+        return mix[random(i).nextInt(mix.length)];
+    }
+
+    public ObjectNode request(int i) {
+        SplittableRandom random = random(i);
+        Scenario scenario = mix[random.nextInt(mix.length)];
+        double[] town = TOWNS[random.nextInt(TOWNS.length)];
+        return scenario.getEndpoint() == Scenario.Endpoint.VRP
+                ? vrpRequest(i, scenario, town, random)
+                : tspRequest(i, scenario, town, random);
+    }
+
+    private ObjectNode tspRequest(int i, Scenario scenario, double[] town, SplittableRandom random) {
+        ObjectNode request = mapper.createObjectNode();
+        ObjectNode vehicle = request.putObject("vehicle");
+        vehicle.put("vehicleId", "rep-" + i);
+        ObjectNode start = vehicle.putObject("startAddress");
+        start.put("locationId", "depot-" + runId + "-" + i);
+        start.put("locationName", "Depot");
+        start.put("lat", town[0]);
+        start.put("lon", town[1]);
+
+        ArrayNode services = request.putArray("services");
+        for (int s = 0; s < scenario.getStops(); s++) {
+            double[] point = point(town, scenario.getRadiusKm(), random);
+            ObjectNode service = services.addObject();
+            service.put("id", "outlet-" + s);
+            ObjectNode address = service.putObject("address");
+            address.put("locationId", "loc-" + i + "-" + s);
+            address.put("name", "Outlet " + s);
+            address.put("lat", point[0]);
+            address.put("lon", point[1]);
+        }
+        return request;
+    }
+
+    private ObjectNode vrpRequest(int i, Scenario scenario, double[] town, SplittableRandom random) {
+        ObjectNode request = mapper.createObjectNode();
+        Scenario.Fleet fleet = scenario.getFleet();
+        boolean mixed = fleet == Scenario.Fleet.MIXED || fleet == Scenario.Fleet.MIXED_MULTI_TRIP;
+
+        ArrayNode types = request.putArray("vehicleTypes");
+        types.addObject().put("typeId", "van").put("capacity", 60).putArray("capacities").add(60).add(8);
+        if (mixed) {
+            types.addObject().put("typeId", "truck").put("capacity", 200).putArray("capacities").add(200).add(30);
+        }
+
+        int vehicleCount = Math.max(2, scenario.getStops() / 15);
+        ArrayNode vehicles = request.putArray("vehicles");
+        for (int v = 0; v < vehicleCount; v++) {
+            ObjectNode vehicle = vehicles.addObject();
+            boolean truck = mixed && v % 3 == 0;
+            vehicle.put("vehicleId", "vehicle-" + v);
+            vehicle.put("typeId", truck ? "truck" : "van");
+            vehicle.put("startTime", SHIFT_START);
+            vehicle.put("endTime", SHIFT_END);
+            if (truck) {
+                vehicle.putArray("skills").add("refrigerated");
+            }
+            if (fleet == Scenario.Fleet.MIXED_MULTI_TRIP) {
+                vehicle.put("maxTrips", 2);
+            }
+            ObjectNode start = vehicle.putObject("startAddress");
+            start.put("locationId", "depot-" + runId + "-" + i);
+            start.put("lat", town[0]);
+            start.put("lon", town[1]);
+        }
+
+        ArrayNode services = request.putArray("services");
+        for (int s = 0; s < scenario.getStops(); s++) {
+            double[] point = point(town, scenario.getRadiusKm(), random);
+            ObjectNode service = services.addObject();
+            service.put("id", "outlet-" + s);
+            service.put("name", "Outlet " + s);
+            ObjectNode address = service.putObject("address");
+            address.put("locationId", "loc-" + i + "-" + s);
+            address.put("lat", point[0]);
+            address.put("lon", point[1]);
+            int weight = 1 + random.nextInt(8);
+            service.put("size", weight);
+            service.putArray("sizes").add(weight).add(random.nextInt(2));
+            service.put("serviceTime", 300 + random.nextInt(600));
+            if (mixed && random.nextInt(10) == 0) {
+                service.putArray("requiredSkills").add("refrigerated");
+            }
+            timeWindow(service, scenario.getTimeWindows(), random);
+        }
+
+        ArrayNode shipments = request.putArray("shipments");
+        for (int s = 0; s < scenario.getShipments(); s++) {
+            ObjectNode shipment = shipments.addObject();
+            shipment.put("id", "transfer-" + s);
+            shipment.put("name", "Transfer " + s);
+            int weight = 2 + random.nextInt(10);
+            shipment.put("size", weight);
+            shipment.putArray("sizes").add(weight).add(1);
+            for (String stop : new String[]{"pickup", "delivery"}) {
+                double[] point = point(town, scenario.getRadiusKm(), random);
+                ObjectNode node = shipment.putObject(stop);
+                node.put("serviceTime", 600);
+                ObjectNode address = node.putObject("address");
+                address.put("locationId", "loc-" + i + "-" + stop + "-" + s);
+                address.put("lat", point[0]);
+                address.put("lon", point[1]);
+            }
+        }
+        return request;
+    }
+
+    private static void timeWindow(ObjectNode job, Scenario.TimeWindows tightness, SplittableRandom random) {
+        if (tightness == Scenario.TimeWindows.NONE) {
+            return;
+        }
+        long width = tightness == Scenario.TimeWindows.TIGHT ? 3600 : 4 * 3600;
+        long start = SHIFT_START + random.nextLong(SHIFT_END - SHIFT_START - width);
+        job.putObject("timewindow").put("startTime", start).put("endTime", start + width);
+    }
+
+    // Uniform point in a disc of the given radius around the town
+    private static double[] point(double[] town, double radiusKm, SplittableRandom random) {
+        double distance = radiusKm * Math.sqrt(random.nextDouble());
+        double angle = 2 * Math.PI * random.nextDouble();
+        double lat = town[0] + distance * Math.cos(angle) / KM_PER_DEGREE;
+        double lon = town[1] + distance * Math.sin(angle) / (KM_PER_DEGREE * Math.cos(Math.toRadians(town[0])));
+        return new double[]{lat, lon};
+    }
+
+    private SplittableRandom random(int i) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + i);
+    }
+}
@@ -0,0 +1,64 @@
+package com.salescore.vrp_tsp.loadtest;
+
+// Request shapes of the production mix; the weight is the share of each scenario in a run
+
+public enum Scenario {
+    TSP_DISTANCE_SMALL(Endpoint.TSP_DISTANCE, 12, 0, 5, TimeWindows.NONE, Fleet.SINGLE, 20),
+    TSP_DURATION_MEDIUM(Endpoint.TSP_DURATION, 40, 0, 15, TimeWindows.NONE, Fleet.SINGLE, 15),
+    TSP_DURATION_LARGE(Endpoint.TSP_DURATION, 120, 0, 30, TimeWindows.NONE, Fleet.SINGLE, 5),
+    VRP_SMALL_LOOSE(Endpoint.VRP, 20, 0, 8, TimeWindows.LOOSE, Fleet.HOMOGENEOUS, 25),
+    VRP_MEDIUM_TIGHT(Endpoint.VRP, 60, 0, 20, TimeWindows.TIGHT, Fleet.MIXED, 20),
+    VRP_LARGE_MIXED(Endpoint.VRP, 150, 10, 40, TimeWindows.LOOSE, Fleet.MIXED_MULTI_TRIP, 15);
+
+    public enum Endpoint { TSP_DISTANCE, TSP_DURATION, VRP }
+
+    public enum TimeWindows { NONE, LOOSE, TIGHT }
+
+    public enum Fleet { SINGLE, HOMOGENEOUS, MIXED, MIXED_MULTI_TRIP }
+
+    private final Endpoint endpoint;
+    private final int stops;
+    private final int shipments;
+    private final double radiusKm;
+    private final TimeWindows timeWindows;
+    private final Fleet fleet;
+    private final int weight;
+
+    Scenario(Endpoint endpoint, int stops, int shipments, double radiusKm, TimeWindows timeWindows, Fleet fleet, int weight) {
+        this.endpoint = endpoint;
+        this.stops = stops;
+        this.shipments = shipments;
+        this.radiusKm = radiusKm;
+        this.timeWindows = timeWindows;
+        this.fleet = fleet;
+        this.weight = weight;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public int getStops() {
+        return stops;
+    }
+
+    public int getShipments() {
+        return shipments;
+    }
+
+    public double getRadiusKm() {
+        return radiusKm;
+    }
+
+    public TimeWindows getTimeWindows() {
+        return timeWindows;
+    }
+
+    public Fleet getFleet() {
+        return fleet;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
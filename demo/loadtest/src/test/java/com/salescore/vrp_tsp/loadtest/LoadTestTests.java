@@ -0,0 +1,115 @@
+package com.salescore.vrp_tsp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadTestTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void resultsWithinTheTolerancesPass() {
+        ObjectNode baseline = report(10.0, 100, 1_000, 500.0, 0, 0);
+        ObjectNode run = report(9.0, 100, 1_150, 505.0, 0, 0);
+
+        assertTrue(compare(baseline, run).isEmpty(), compare(baseline, run).toString());
+    }
+
+    @Test
+    void latencyThroughputAndCostAreGatedTogether() {
+        ObjectNode baseline = report(10.0, 100, 1_000, 500.0, 0, 0);
+        ObjectNode run = report(8.0, 100, 1_300, 520.0, 1, 2);
+
+        List<String> regressions = compare(baseline, run);
+
+        assertEquals(7, regressions.size(), regressions.toString());
+        assertTrue(regressions.get(0).startsWith("throughput 8.00 req/s"));
+        assertTrue(regressions.contains("VRP_SMALL_LOOSE errors 1 > baseline 0"));
+        assertTrue(regressions.contains("VRP_SMALL_LOOSE p50 650 ms > baseline 500 ms"));
+        assertTrue(regressions.contains("VRP_SMALL_LOOSE p95 1300 ms > baseline 1000 ms"));
+        assertTrue(regressions.contains("VRP_SMALL_LOOSE p99 2600 ms > baseline 2000 ms"));
+        assertTrue(regressions.contains("VRP_SMALL_LOOSE mean cost 520.0 > baseline 500.0"));
+        assertTrue(regressions.contains("VRP_SMALL_LOOSE unassigned jobs 2 > baseline 0"));
+    }
+
+    @Test
+    void medianAndTailAreGatedOnTheirOwn() {
+        ObjectNode baseline = report(10.0, 100, 1_000, 500.0, 0, 0);
+        ObjectNode slowMedian = report(10.0, 100, 1_000, 500.0, 0, 0);
+        scenario(slowMedian).put("p50Ms", 700);
+        ObjectNode slowTail = report(10.0, 100, 1_000, 500.0, 0, 0);
+        scenario(slowTail).put("p99Ms", 3_000);
+
+        assertEquals(List.of("VRP_SMALL_LOOSE p50 700 ms > baseline 500 ms"), compare(baseline, slowMedian));
+        assertEquals(List.of("VRP_SMALL_LOOSE p99 3000 ms > baseline 2000 ms"), compare(baseline, slowTail));
+    }
+
+    @Test
+    void p99OfFewerThanAHundredSamplesIsNotGated() {
+        ObjectNode baseline = report(10.0, 60, 1_000, 500.0, 0, 0);
+        ObjectNode run = report(10.0, 60, 1_000, 500.0, 0, 0);
+        scenario(run).put("p99Ms", 9_000);
+
+        assertTrue(compare(baseline, run).isEmpty());
+    }
+
+    @Test
+    void latencyOfSmallSamplesIsNotGated() {
+        ObjectNode baseline = report(10.0, 10, 1_000, 500.0, 0, 0);
+        ObjectNode run = report(10.0, 10, 5_000, 500.0, 0, 0);
+
+        assertTrue(compare(baseline, run).isEmpty());
+    }
+
+    @Test
+    void baselineOfOtherSettingsIsNotCompared() {
+        ObjectNode baseline = report(10.0, 100, 1_000, 500.0, 0, 0);
+        ObjectNode run = report(1.0, 100, 9_000, 900.0, 0, 0).put("seed", 7);
+
+        List<String> regressions = compare(baseline, run);
+
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).startsWith("seed differs from the baseline"));
+    }
+
+    @Test
+    void scenarioMissingFromTheRunIsARegression() {
+        ObjectNode baseline = report(10.0, 100, 1_000, 500.0, 0, 0);
+        ObjectNode run = report(10.0, 100, 1_000, 500.0, 0, 0);
+        run.putObject("scenarios");
+
+        assertEquals(List.of("VRP_SMALL_LOOSE missing from the run"), compare(baseline, run));
+    }
+
+    private static List<String> compare(ObjectNode baseline, ObjectNode run) {
+        return LoadTest.compare(baseline, run, 0.20, 0.15, 0.02, 40);
+    }
+
+    private static ObjectNode scenario(ObjectNode report) {
+        return (ObjectNode) report.path("scenarios").path(Scenario.VRP_SMALL_LOOSE.name());
+    }
+
+    // p50 is half and p99 twice the p95 latency
+    private ObjectNode report(double throughput, int count, double p95Ms, double meanCost, int errors, int unassigned) {
+        ObjectNode report = mapper.createObjectNode();
+        report.put("requests", 1000);
+        report.put("concurrency", 8);
+        report.put("seed", 42);
+        report.put("throughput", throughput);
+        report.putObject("scenarios").putObject(Scenario.VRP_SMALL_LOOSE.name())
+                .put("count", count)
+                .put("errors", errors)
+                .put("p50Ms", p95Ms / 2)
+                .put("p95Ms", p95Ms)
+                .put("p99Ms", p95Ms * 2)
+                .put("meanCost", meanCost)
+                .put("unassigned", unassigned);
+        return report;
+    }
+}
@@ -0,0 +1,66 @@
+package com.salescore.vrp_tsp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestGeneratorTests {
+
+    @Test
+    void sameSeedReplaysTheSameRequests() {
+        RequestGenerator first = new RequestGenerator(42, "run");
+        RequestGenerator second = new RequestGenerator(42, "run");
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(first.request(i), second.request(i));
+        }
+        assertNotEquals(first.request(0), new RequestGenerator(43, "run").request(0));
+    }
+
+    @Test
+    void runIdOnlyChangesTheDepotLocationIds() {
+        for (int i = 0; i < 20; i++) {
+            ObjectNode request = new RequestGenerator(42, "a").request(i);
+            String text = request.toString();
+            String other = new RequestGenerator(42, "b").request(i).toString();
+
+            assertNotEquals(text, other);
+            assertEquals(text.replace("depot-a-", "depot-b-"), other);
+        }
+    }
+
+    @Test
+    void requestsHaveTheShapeOfTheirScenario() {
+        RequestGenerator generator = new RequestGenerator(7, "run");
+        Map<Scenario, Integer> seen = new EnumMap<>(Scenario.class);
+
+        for (int i = 0; i < 400; i++) {
+            Scenario scenario = generator.scenario(i);
+            JsonNode request = generator.request(i);
+            seen.merge(scenario, 1, Integer::sum);
+
+            assertEquals(scenario.getStops(), request.path("services").size(), scenario + " request " + i);
+            if (scenario.getEndpoint() == Scenario.Endpoint.VRP) {
+                assertEquals(scenario.getShipments(), request.path("shipments").size());
+                for (JsonNode service : request.path("services")) {
+                    JsonNode window = service.path("timewindow");
+                    assertEquals(scenario.getTimeWindows() == Scenario.TimeWindows.NONE, window.isMissingNode());
+                    if (scenario.getTimeWindows() == Scenario.TimeWindows.TIGHT) {
+                        assertEquals(3600, window.path("endTime").asLong() - window.path("startTime").asLong());
+                    }
+                }
+            } else {
+                assertTrue(request.path("vehicle").isObject());
+            }
+        }
+        // 400 draws cover even the 5 % scenario
+        assertEquals(Scenario.values().length, seen.size());
+    }
+}
@@ -0,0 +1,17 @@
+package com.salescore.vrp_tsp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class SolverConfiguration {
+
+    // Shared fork-join pool for matrix computation and the parallel TSP search (threads=0 uses all cores)
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool solverPool(@Value("${tsp.solver.threads:0}") int threads) {
+        return new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+}
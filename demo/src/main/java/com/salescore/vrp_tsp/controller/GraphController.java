@@ -0,0 +1,41 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.service.GraphReloader;
+import com.salescore.vrp_tsp.service.RemoteSolveWorker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/graph")
+public class GraphController {
+
+    private final GraphReloader graphReloader;
+    private final SharedSecret secret;
+
+    @Autowired
+    public GraphController(GraphReloader graphReloader, @Value("${solve.workers.secret:}") String secret) {
+        this.graphReloader = graphReloader;
+        this.secret = new SharedSecret(secret);
+    }
+
+    // Rebuilds the routing graphs from the current OSM file in the background, solves keep running on the old graphs.
+    // Needs the same shared secret as the worker endpoints.
+    @PostMapping("/reload")
+    public ResponseEntity<String> reload(@RequestHeader(value = RemoteSolveWorker.SECRET_HEADER, required = false) String secret) {
+        if (!this.secret.matches(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Invalid worker secret.");
+        }
+        if (!graphReloader.reloadAll()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A graph reload is already running.");
+        }
+        return ResponseEntity.accepted().body("Graph reload started.");
+    }
+
+    @GetMapping("/reload")
+    public ResponseEntity<String> reloadStatus() {
+        return ResponseEntity.ok(graphReloader.isReloading() ? "reloading" : "idle");
+    }
+}
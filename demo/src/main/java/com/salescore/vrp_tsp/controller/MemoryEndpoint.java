@@ -0,0 +1,73 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.service.GraphReloader;
+import com.salescore.vrp_tsp.service.MemoryBudget;
+import com.salescore.vrp_tsp.service.RoutingEngine;
+import com.salescore.vrp_tsp.service.SolveResultCache;
+import com.salescore.vrp_tsp.service.TiledRoutingMatrix;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// /actuator/memory: where the memory of this node goes, in bytes
+@Component
+@Endpoint(id = "memory")
+public class MemoryEndpoint {
+
+    private final MemoryBudget memoryBudget;
+    private final GraphReloader graphReloader;
+    private final SolveResultCache resultCache;
+
+    public MemoryEndpoint(MemoryBudget memoryBudget, GraphReloader graphReloader, SolveResultCache resultCache) {
+        this.memoryBudget = memoryBudget;
+        this.graphReloader = graphReloader;
+        this.resultCache = resultCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> memory() {
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        jvm.put("containerLimit", memoryBudget.getContainerLimitBytes());
+        jvm.put("heapMax", memoryBudget.getMaxHeapBytes());
+        jvm.put("heapCommitted", heap.getCommitted());
+        jvm.put("heapUsed", heap.getUsed());
+        jvm.put("nonHeapUsed", ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getUsed());
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            jvm.put(pool.getName() + "Buffers", pool.getMemoryUsed()); // "direct" and "mapped"
+        }
+
+        Map<String, Object> graphs = new LinkedHashMap<>();
+        for (RoutingEngine engine : graphReloader.getEngines()) {
+            Map<String, Object> graph = new LinkedHashMap<>();
+            graph.put("dataAccess", engine.getDataAccess());
+            graph.put("onHeap", engine.isOnHeap());
+            graph.put("profiles", engine.getFootprint());
+            graphs.put(engine.getName(), graph);
+        }
+
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("entries", resultCache.size());
+        cache.put("estimated", resultCache.estimatedBytes());
+        cache.put("max", resultCache.getMaxBytes());
+
+        Map<String, Object> solver = new LinkedHashMap<>();
+        solver.put("running", memoryBudget.getRunningSolves());
+        solver.put("reservedWorkingSet", memoryBudget.getReservedBytes());
+        solver.put("budget", memoryBudget.solverBudgetBytes());
+        solver.put("matrixTilesOffHeap", TiledRoutingMatrix.offHeapBytes());
+
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("jvm", jvm);
+        memory.put("graphs", graphs);
+        memory.put("cache", cache);
+        memory.put("solver", solver);
+        return memory;
+    }
+}
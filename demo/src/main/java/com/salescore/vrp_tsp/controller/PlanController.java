@@ -0,0 +1,31 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.service.SolvePersistence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/plans")
+public class PlanController {
+
+    // Response header carrying the id of the stored plan on every solve response
+    public static final String PLAN_ID_HEADER = "X-Plan-Id";
+
+    private final SolvePersistence persistence;
+
+    @Autowired
+    public PlanController(SolvePersistence persistence) {
+        this.persistence = persistence;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<String> getPlan(@PathVariable UUID id) {
+        return persistence.findPlan(id)
+                .map(plan -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(plan))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
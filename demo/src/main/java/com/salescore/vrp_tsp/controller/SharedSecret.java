@@ -0,0 +1,20 @@
+package com.salescore.vrp_tsp.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Check of the solve.workers.secret header on internal endpoints; while no secret is configured every call is refused.
+final class SharedSecret {
+
+    private final byte[] secret;
+
+    SharedSecret(String secret) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Constant-time comparison, so the secret cannot be guessed byte by byte from response times
+    boolean matches(String presented) {
+        return secret.length > 0 && presented != null
+                && MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,32 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.service.AdmissionRejectedException;
+import com.salescore.vrp_tsp.service.WorkerBusyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class SolveExceptionHandler {
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> handleAdmissionRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    // Invalid or infeasible requests, e.g. an unknown preset or routing mode, or rejected infeasible jobs
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // A worker node out of memory answers 429 so the dispatching node tries another worker
+    @ExceptionHandler(WorkerBusyException.class)
+    public ResponseEntity<String> handleWorkerBusy(WorkerBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+    }
+}
@@ -1,35 +1,62 @@
 package com.salescore.vrp_tsp.controller;
 
 import com.salescore.vrp_tsp.model.TspRequest;
-import com.salescore.vrp_tsp.service.TspServiceDistance;
-import com.salescore.vrp_tsp.service.TspServiceDuration;
+import com.salescore.vrp_tsp.service.RequestFingerprint;
+import com.salescore.vrp_tsp.service.SolveAdmission;
+import com.salescore.vrp_tsp.service.SolveDispatcher;
+import com.salescore.vrp_tsp.service.SolveKind;
+import com.salescore.vrp_tsp.service.SolvePersistence;
+import com.salescore.vrp_tsp.service.SolveResultCache;
+import com.salescore.vrp_tsp.service.SolvedPlan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.Callable;
+
 @RestController
 @RequestMapping("/api/tsp")
 public class TspController {
 
-    private final TspServiceDistance tspService;
-    private final TspServiceDuration tspServiceDuration;
+    private final SolveResultCache resultCache;
+    private final SolveAdmission admission;
+    private final SolveDispatcher dispatcher;
+    private final SolvePersistence persistence;
 
     @Autowired
-    public TspController(TspServiceDistance tspService, TspServiceDuration tspServiceDuration) {
-        this.tspService = tspService;
-        this.tspServiceDuration = tspServiceDuration;
+    public TspController(SolveResultCache resultCache, SolveAdmission admission, SolveDispatcher dispatcher,
+                         SolvePersistence persistence) {
+        this.resultCache = resultCache;
+        this.admission = admission;
+        this.dispatcher = dispatcher;
+        this.persistence = persistence;
     }
 
+    // Runs asynchronously so a client disconnect or request timeout cancels the solve
     @PostMapping("/solve")
-    public ResponseEntity<String> solveTsp(@RequestParam String method, @RequestBody TspRequest tspRequest) {
-        if ("distance".equalsIgnoreCase(method)) {
-            String solution = tspService.solveTsp(tspRequest);
-            return ResponseEntity.ok(solution);
-        } else if ("duration".equalsIgnoreCase(method)) {
-            String solution = tspServiceDuration.solveTspDuration(tspRequest);
-            return ResponseEntity.ok(solution);
-        } else {
-            return ResponseEntity.badRequest().body("Invalid method. Use 'distance' or 'duration'.");
-        }
+    public Callable<ResponseEntity<String>> solveTsp(@RequestParam String method,
+                                                     @RequestHeader(value = SolveAdmission.API_KEY_HEADER, required = false) String apiKey,
+                                                     @RequestBody TspRequest tspRequest) {
+        return () -> {
+            String tenant = admission.tenant(apiKey);
+            int locations = tspRequest.getServices().size() + 1;
+            if ("distance".equalsIgnoreCase(method)) {
+                String fingerprint = RequestFingerprint.of(tenant, tspRequest, method);
+                SolvedPlan plan = resultCache.getOrCompute(fingerprint, () -> {
+                    String solution = admission.run(tenant, locations, () -> dispatcher.solve(SolveKind.TSP_DISTANCE, tspRequest));
+                    return new SolvedPlan(persistence.recordPlan("tsp-distance", fingerprint, tspRequest, solution), solution);
+                });
+                return ResponseEntity.ok().header(PlanController.PLAN_ID_HEADER, plan.planId().toString()).body(plan.response());
+            } else if ("duration".equalsIgnoreCase(method)) {
+                String fingerprint = RequestFingerprint.of(tenant, tspRequest, method);
+                SolvedPlan plan = resultCache.getOrCompute(fingerprint, () -> {
+                    String solution = admission.run(tenant, locations, () -> dispatcher.solve(SolveKind.TSP_DURATION, tspRequest));
+                    return new SolvedPlan(persistence.recordPlan("tsp-duration", fingerprint, tspRequest, solution), solution);
+                });
+                return ResponseEntity.ok().header(PlanController.PLAN_ID_HEADER, plan.planId().toString()).body(plan.response());
+            } else {
+                return ResponseEntity.badRequest().body("Invalid method. Use 'distance' or 'duration'.");
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,53 @@
 package com.salescore.vrp_tsp.controller;
 
 import com.salescore.vrp_tsp.model.VrpRequest;
-import com.salescore.vrp_tsp.service.VrpService;
+import com.salescore.vrp_tsp.service.RequestFingerprint;
+import com.salescore.vrp_tsp.service.SolveAdmission;
+import com.salescore.vrp_tsp.service.SolveDispatcher;
+import com.salescore.vrp_tsp.service.SolveKind;
+import com.salescore.vrp_tsp.service.SolvePersistence;
+import com.salescore.vrp_tsp.service.SolveResultCache;
+import com.salescore.vrp_tsp.service.SolvedPlan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.Callable;
+
 @RestController
 @RequestMapping("/api/vrp")
 public class VrpController {
 
-    private final VrpService vrpService;
+    private final SolveResultCache resultCache;
+    private final SolveAdmission admission;
+    private final SolveDispatcher dispatcher;
+    private final SolvePersistence persistence;
 
     @Autowired
-    public VrpController(VrpService vrpService) {
-        this.vrpService = vrpService;
+    public VrpController(SolveResultCache resultCache, SolveAdmission admission, SolveDispatcher dispatcher, SolvePersistence persistence) {
+        this.resultCache = resultCache;
+        this.admission = admission;
+        this.dispatcher = dispatcher;
+        this.persistence = persistence;
     }
 
+    // Runs asynchronously so a client disconnect or request timeout cancels the solve
     @PostMapping("/solve")
-    public ResponseEntity<String> solveVrp(@RequestBody VrpRequest vrpRequest) {
-        // Pass the request to the service to handle VRP solving
-        String solution = vrpService.solveVrp(vrpRequest);
-        return ResponseEntity.ok(solution);
+    public Callable<ResponseEntity<String>> solveVrp(@RequestHeader(value = SolveAdmission.API_KEY_HEADER, required = false) String apiKey,
+                                                     @RequestBody VrpRequest vrpRequest) {
+        return () -> {
+            String tenant = admission.tenant(apiKey);
+            // Dispatch the request to a solve worker, duplicates share one admitted computation
+            int services = vrpRequest.getServices() != null ? vrpRequest.getServices().size() : 0;
+            int shipments = vrpRequest.getShipments() != null ? vrpRequest.getShipments().size() : 0;
+            int locations = vrpRequest.getVehicles().size() + services + 2 * shipments;
+            String fingerprint = RequestFingerprint.of(tenant, vrpRequest);
+            SolvedPlan plan = resultCache.getOrCompute(fingerprint, () -> {
+                String solution = admission.run(tenant, locations, () -> dispatcher.solve(SolveKind.VRP, vrpRequest));
+                // Stored in the background, the id can be looked up under /api/plans right away
+                return new SolvedPlan(persistence.recordPlan("vrp", fingerprint, vrpRequest, solution), solution);
+            });
+            return ResponseEntity.ok().header(PlanController.PLAN_ID_HEADER, plan.planId().toString()).body(plan.response());
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.model.TspRequest;
+import com.salescore.vrp_tsp.model.VrpRequest;
+import com.salescore.vrp_tsp.service.LocalSolveWorker;
+import com.salescore.vrp_tsp.service.RemoteSolveWorker;
+import com.salescore.vrp_tsp.service.SolveKind;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.Callable;
+
+// Job endpoint of a worker node; admission, caching and persistence happen on the dispatching API node.
+// Only dispatchers sending the shared solve.workers.secret get in; without a configured secret every job is refused.
+@RestController
+@RequestMapping("/internal/solve")
+public class WorkerController {
+
+    private final LocalSolveWorker localWorker;
+    private final SharedSecret secret;
+
+    @Autowired
+    public WorkerController(LocalSolveWorker localWorker, @Value("${solve.workers.secret:}") String secret) {
+        this.localWorker = localWorker;
+        this.secret = new SharedSecret(secret);
+    }
+
+    @PostMapping("/vrp")
+    public Callable<ResponseEntity<String>> solveVrp(@RequestHeader(value = RemoteSolveWorker.SECRET_HEADER, required = false) String secret,
+                                                     @RequestBody VrpRequest vrpRequest) {
+        return () -> authorized(secret) ? ResponseEntity.ok(localWorker.solve(SolveKind.VRP, vrpRequest)) : forbidden();
+    }
+
+    @PostMapping("/tsp-distance")
+    public Callable<ResponseEntity<String>> solveTspDistance(@RequestHeader(value = RemoteSolveWorker.SECRET_HEADER, required = false) String secret,
+                                                             @RequestBody TspRequest tspRequest) {
+        return () -> authorized(secret) ? ResponseEntity.ok(localWorker.solve(SolveKind.TSP_DISTANCE, tspRequest)) : forbidden();
+    }
+
+    @PostMapping("/tsp-duration")
+    public Callable<ResponseEntity<String>> solveTspDuration(@RequestHeader(value = RemoteSolveWorker.SECRET_HEADER, required = false) String secret,
+                                                             @RequestBody TspRequest tspRequest) {
+        return () -> authorized(secret) ? ResponseEntity.ok(localWorker.solve(SolveKind.TSP_DURATION, tspRequest)) : forbidden();
+    }
+
+    private boolean authorized(String presented) {
+        return secret.matches(presented);
+    }
+
+    private static ResponseEntity<String> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Invalid worker secret.");
+    }
+}
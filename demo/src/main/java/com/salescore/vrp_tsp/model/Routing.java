@@ -0,0 +1,21 @@
+package com.salescore.vrp_tsp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Routing mode and road restrictions for the matrix of a VRP or TSP request
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Routing {
+    private boolean calcPoints;
+    private boolean considerTraffic;
+    private List<String> snapPreventions;   // e.g. "motorway", "tunnel", "ferry"
+    private String mode;                    // "auto" (default), "ch" or "lm"
+    private List<String> avoidRoadClasses;  // e.g. "motorway", "trunk"; needs the flexible (LM) mode
+    private Map<String, Double> headings;   // Location id to heading in degrees; needs the flexible (LM) mode
+}
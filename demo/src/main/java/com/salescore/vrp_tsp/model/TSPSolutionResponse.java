@@ -20,6 +20,8 @@ public class TSPSolutionResponse {
         public int time;
         public int no_vehicles;
         public List<Route> routes;
+        public String preset;   // Preset the search ran with
+        public long runtimeMs;  // Matrix and search time of this solve
     }
 
     @Data
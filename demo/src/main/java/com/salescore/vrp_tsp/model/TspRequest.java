@@ -13,6 +13,7 @@ import java.util.List;
 public class TspRequest {
     private Vehicle vehicle;
     private List<ServiceLocation> services;
+    private Configuration configuration;
 
     @Data
     @NoArgsConstructor
@@ -49,4 +50,16 @@ public class TspRequest {
             private double lat;
         }
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Configuration {
+        private String preset;       // "fast", "balanced" or "thorough"; defaults to tsp.solver.preset
+        private Integer starts;      // Number of independent randomized constructions
+        private Long seed;           // Seed for the randomized constructions
+        private Long timeLimitMs;    // Wall-clock budget for the search
+        private Integer neighbors;   // Candidate list length per stop for construction and local search
+        private Routing routing; // Routing mode and road restrictions for the matrix
+    }
 }
\ No newline at end of file
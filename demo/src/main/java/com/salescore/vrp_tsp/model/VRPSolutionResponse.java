@@ -21,12 +21,26 @@ public class VRPSolutionResponse {
         public int time;
         private int noVehicles;
         private List<Route> routes;
+        private List<UnassignedJob> unassigned; // Jobs left out of every route, with the most likely reason
+        private String preset;  // Preset the search ran with
+        private long runtimeMs; // Matrix and search time of this solve
+
+        @Data
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class UnassignedJob {
+            private String id;
+            private int code;      // jsprit reason code: 1 skills, 2 time window, 3 capacity, 4 max distance; -1 unknown
+            private String reason;
+            private boolean preSolve; // Rejected by the pre-solve feasibility check, never entered the search
+        }
 
         @Data
         @NoArgsConstructor
         @AllArgsConstructor
         public static class Route {
             private String vehicleId;
+            private int trip; // 1-based trip number for vehicles with several trips
             private double distance;
             public double duration;
             private List<Activity> activities;
@@ -35,13 +49,16 @@ public class VRPSolutionResponse {
             @NoArgsConstructor
             @AllArgsConstructor
             public static class Activity {
-                private String type; // "start", "service", or "end"
+                private String type; // "start", "visit", "pickup", "delivery" or "end"
                 private String id;
                 private Address address;
                 private double distance;
                 public double duration;
                 private int loadBefore;
                 private int loadAfter;
+                private List<Integer> loadsBefore; // Load per capacity dimension
+                private List<Integer> loadsAfter;
+                private long serviceTime;
                 private long arriveTime;
                 private long endTime;
 
@@ -15,6 +15,7 @@ public class VrpRequest {
     private List<Vehicle> vehicles;
     private List<VehicleType> vehicleTypes;
     private List<VrpService> services;
+    private List<VrpShipment> shipments; // Paired pickup and delivery jobs
     private Configuration configuration;
 
     @Data
@@ -26,6 +27,8 @@ public class VrpRequest {
         private StartAddress startAddress;
         private Long startTime; // Earliest start time for the vehicle
         private Long endTime;   // Latest arrival time for the vehicle
+        private List<String> skills; // e.g. "refrigerated"
+        private Integer maxTrips; // Trips back to the depot to reload within the shift, defaults to 1; never more routes than this
 
         @Data
         @NoArgsConstructor
@@ -43,6 +46,7 @@ public class VrpRequest {
     public static class VehicleType {
         private String typeId;
         private int capacity;
+        private List<Integer> capacities; // One entry per dimension (e.g. weight, volume), overrides capacity
         private String profile;
     }
 
@@ -54,6 +58,9 @@ public class VrpRequest {
         private String name;
         private Address address;
         private int size;
+        private List<Integer> sizes; // One entry per capacity dimension, overrides size
+        private Long serviceTime; // Dwell time at the outlet, in seconds
+        private List<String> requiredSkills;
         private TimeWindow timewindow;
 
         @Data
@@ -78,16 +85,30 @@ public class VrpRequest {
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class Configuration {
-        private Routing routing;
+    public static class VrpShipment {
+        private String id;
+        private String name;
+        private int size;
+        private List<Integer> sizes; // One entry per capacity dimension, overrides size
+        private List<String> requiredSkills;
+        private Stop pickup;
+        private Stop delivery;
 
         @Data
         @NoArgsConstructor
         @AllArgsConstructor
-        public static class Routing {
-            private boolean calcPoints;
-            private boolean considerTraffic;
-            private List<String> snapPreventions;
+        public static class Stop {
+            private VrpService.Address address;
+            private Long serviceTime; // Seconds
+            private VrpService.TimeWindow timewindow;
         }
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Configuration {
+        private Routing routing;
+        private String preset; // "fast", "balanced" or "thorough"; defaults to vrp.solver.preset
+    }
 }
@@ -0,0 +1,15 @@
+package com.salescore.vrp_tsp.service;
+
+// Solve not admitted within its tenant or global budget, answered with 429 and Retry-After
+public class AdmissionRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
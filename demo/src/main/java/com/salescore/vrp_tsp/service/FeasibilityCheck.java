@@ -0,0 +1,115 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.Skills;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pre-solve pass for jobs no vehicle can serve even on a route of their own (skills, capacity, time windows).
+// A relaxation: jobs failing it are unassigned in every solution. Reason codes follow jsprit's UnassignedJobReasonTracker.
+public final class FeasibilityCheck {
+    public static final int SKILL_CONSTRAINT = 1;
+    public static final int TIME_WINDOW_CONSTRAINT = 2;
+    public static final int CAPACITY_CONSTRAINT = 3;
+
+    private FeasibilityCheck() {
+    }
+
+    // Reason code per infeasible job id, in job order
+    public static Map<String, Integer> infeasibleJobs(List<? extends Vehicle> vehicles, List<Job> jobs, TravelMatrix matrix) {
+        Map<String, Integer> infeasible = new LinkedHashMap<>();
+        for (Job job : jobs) {
+            // Report the most fundamental constraint: skills before capacity before time
+            boolean skilled = false;
+            boolean fits = false;
+            boolean reachable = false;
+            for (Vehicle vehicle : vehicles) {
+                if (!hasSkills(vehicle.getSkills(), job.getRequiredSkills())) {
+                    continue;
+                }
+                skilled = true;
+                if (!fits(job.getSize(), vehicle.getType().getCapacityDimensions())) {
+                    continue;
+                }
+                fits = true;
+                if (reachable(vehicle, job, matrix)) {
+                    reachable = true;
+                    break;
+                }
+            }
+            if (!reachable) {
+                infeasible.put(job.getId(), !skilled ? SKILL_CONSTRAINT : !fits ? CAPACITY_CONSTRAINT : TIME_WINDOW_CONSTRAINT);
+            }
+        }
+        return infeasible;
+    }
+
+    public static
+ String reason(int code) {
+        return switch (code) {
+            case SKILL_CONSTRAINT -> "cannot serve required skill";
+            case TIME_WINDOW_CONSTRAINT -> "cannot be visited within time window";
+            case CAPACITY_CONSTRAINT -> "does not fit into any vehicle due to capacity";
+            default -> "no reason found";
+        };
+    }
+
+    private static boolean hasSkills(Skills vehicleSkills, Skills requiredSkills) {
+        for (String skill : requiredSkills.values()) {
+            if (!vehicleSkills.containsSkill(skill)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean fits(Capacity size, Capacity capacity) {
+        // Dimensions the vehicle type does not define count as zero capacity, as in jsprit
+        for (int d = 0; d < size.getNuOfDimensions(); d++) {
+            if (size.get(d) > capacity.get(d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean reachable(Vehicle vehicle, Job job, TravelMatrix matrix) {
+        int start = vehicle.getStartLocation().getIndex();
+        int end = vehicle.isReturnToDepot() ? vehicle.getEndLocation().getIndex() : -1;
+        double time = vehicle.getEarliestDeparture();
+
+        if (job instanceof Shipment shipment) {
+            int pickup = shipment.getPickupLocation().getIndex();
+            int delivery = shipment.getDeliveryLocation().getIndex();
+            time = visit(time + matrix.duration(start, pickup), shipment.getPickupTimeWindow(), shipment.getPickupServiceTime());
+            if (Double.isNaN(time)) {
+                return false;
+            }
+            time = visit(time + matrix.duration(pickup, delivery), shipment.getDeliveryTimeWindow(), shipment.getDeliveryServiceTime());
+            return !Double.isNaN(time) && returnsInTime(vehicle, time, delivery, end, matrix);
+        }
+
+        Service service = (Service) job;
+        int location = service.getLocation().getIndex();
+        time = visit(time + matrix.duration(start, location), service.getTimeWindow(), service.getServiceDuration());
+        return !Double.isNaN(time) && returnsInTime(vehicle, time, location, end, matrix);
+    }
+
+    // Waits for the window to open; NaN if it has already closed on arrival
+    private static double visit(double arrival, TimeWindow window, double serviceTime) {
+        double begin = Math.max(arrival, window.getStart());
+        return begin > window.getEnd() ? Double.NaN : begin + serviceTime;
+    }
+
+    private static boolean returnsInTime(Vehicle vehicle, double time, int from, int end, TravelMatrix matrix) {
+        double arrival = end < 0 ? time : time + matrix.duration(from, end);
+        return arrival <= vehicle.getLatestArrival();
+    }
+}
@@ -0,0 +1,93 @@
+package com.salescore.vrp_tsp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Rebuilds the routing engines one at a time on a background thread when the OSM extract changes, or on demand,
+// so at most one extra graph is in memory. Replace the extract with an atomic move, a half-written one fails to import.
+@Component
+public class GraphReloader {
+    private static final Logger log = LoggerFactory.getLogger(GraphReloader.class);
+
+    private final List<RoutingEngine> engines = new CopyOnWriteArrayList<>();
+    private final SolveResultCache resultCache;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    public GraphReloader(SolveResultCache resultCache,
+                         @Value("${routing.reload.check-interval-seconds:60}") long checkIntervalSeconds) {
+        this.resultCache = resultCache;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "graph-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (checkIntervalSeconds > 0) {
+            executor.scheduleWithFixedDelay(this::reloadStale, checkIntervalSeconds, checkIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public void register(RoutingEngine engine) {
+        engines.add(engine);
+    }
+
+    public List<RoutingEngine> getEngines() {
+        return engines;
+    }
+
+    // False if a reload is already running
+    public boolean reloadAll() {
+        if (!reloading.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> rebuild(engines));
+        return true;
+    }
+
+    public boolean isReloading() {
+        return reloading.get();
+    }
+
+    private void reloadStale() {
+        List<RoutingEngine> stale = engines.stream().filter(RoutingEngine::isStale).toList();
+        if (!stale.isEmpty() && reloading.compareAndSet(false, true)) {
+            rebuild(stale);
+        }
+    }
+
+    private void rebuild(List<RoutingEngine> targets) {
+        try {
+            boolean swapped = false;
+            for (RoutingEngine engine : targets) {
+                try {
+                    log.info("Rebuilding routing graph {} from {}", engine.getName(), engine.getOsmFile());
+                    engine.rebuild();
+                    swapped = true;
+                } catch (RuntimeException e) {
+                    // Keep serving the previous graph
+                    log.error("Rebuilding routing graph {} failed: {}", engine.getName(), e.getMessage(), e);
+                }
+            }
+            if (swapped) {
+                resultCache.invalidateAll();
+            }
+        } finally {
+            reloading.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
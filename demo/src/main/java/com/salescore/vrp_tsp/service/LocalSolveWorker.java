@@ -0,0 +1,80 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.TspRequest;
+import com.salescore.vrp_tsp.model.VrpRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+// Runs solve jobs in this JVM after reserving their estimated working set from the memory budget
+@Component
+public class LocalSolveWorker implements SolveWorker {
+    private final VrpService vrpService;
+    private final TspServiceDistance tspServiceDistance;
+    private final TspServiceDuration tspServiceDuration;
+    private final SolverExecutor solverExecutor;
+    private final MemoryBudget memoryBudget;
+    private final long memoryWaitNanos;
+
+    public LocalSolveWorker(VrpService vrpService, TspServiceDistance tspServiceDistance, TspServiceDuration tspServiceDuration,
+                            SolverExecutor solverExecutor, MemoryBudget memoryBudget,
+                            @Value("${memory.max-wait-ms:10000}") long memoryWaitMs) {
+        this.vrpService = vrpService;
+        this.tspServiceDistance = tspServiceDistance;
+        this.tspServiceDuration = tspServiceDuration;
+        this.solverExecutor = solverExecutor;
+        this.memoryBudget = memoryBudget;
+        this.memoryWaitNanos = TimeUnit.MILLISECONDS.toNanos(memoryWaitMs);
+    }
+
+    @Override
+    public String getId() {
+        return "local";
+    }
+
+    @Override
+    public int getCapacity() {
+        return solverExecutor.getThreads();
+    }
+
+    @Override
+    public String solve(SolveKind kind, Object request) {
+        int locations = locations(request);
+        long workingSet = memoryBudget.workingSetBytes(kind, locations);
+        try {
+            if (!memoryBudget.reserve(workingSet, System.nanoTime() + memoryWaitNanos)) {
+                throw new WorkerBusyException("Worker " + getId() + " has not enough memory for the solve");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Solve cancelled by caller");
+        }
+        try {
+            return switch (kind) {
+                case VRP -> solverExecutor.call(locations, () -> vrpService.solveVrp((VrpRequest) request));
+                case TSP_DISTANCE -> solverExecutor.call(locations, () -> tspServiceDistance.solveTsp((TspRequest) request));
+                case TSP_DURATION -> solverExecutor.call(locations, () -> tspServiceDuration.solveTspDuration((TspRequest) request));
+            };
+        } finally {
+            memoryBudget.release(workingSet);
+        }
+    }
+
+    @Override
+    public boolean checkHealth() {
+        return true;
+    }
+
+    // Matrix size of the solve: vehicle starts, services and both stops of every shipment, or the TSP start plus stops
+    private static int locations(Object request) {
+        if (request instanceof VrpRequest vrpRequest) {
+            int services = vrpRequest.getServices() != null ? vrpRequest.getServices().size() : 0;
+            int shipments = vrpRequest.getShipments() != null ? vrpRequest.getShipments().size() : 0;
+            return vrpRequest.getVehicles().size() + services + 2 * shipments;
+        }
+        TspRequest tspRequest = (TspRequest) request;
+        return tspRequest.getServices() != null ? tspRequest.getServices().size() + 1 : 1;
+    }
+}
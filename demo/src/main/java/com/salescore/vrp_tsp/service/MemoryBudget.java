@@ -0,0 +1,156 @@
+package com.salescore.vrp_tsp.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Heap left for solves: max heap (sized from the container limit) minus on-heap graphs, the cache bound and a reserve.
+// Solves reserve their estimated working set before starting; one larger than the whole budget runs alone.
+@Component
+public class MemoryBudget {
+    private static final Logger log = LoggerFactory.getLogger(MemoryBudget.class);
+
+    // 2 doubles routing matrix + 2 doubles jsprit cost matrix + 1 neighbour bit per location pair, rounded up
+    private static final long BYTES_PER_LOCATION_PAIR = 33;
+    // Tiled VRP matrices live off-heap; per location the heap holds air candidates, neighbour lists and jsprit state
+    private static final long TILED_BYTES_PER_LOCATION = 4096;
+
+    private final GraphReloader graphReloader;
+    private final SolveResultCache resultCache;
+    private final long containerLimitBytes;
+    private final long maxHeapBytes;
+    private final long reserveBytes;
+    private final long solveOverheadBytes;
+    private final int tiledMinLocations;
+    // A lock rather than a monitor: solves run on virtual threads, which must not be pinned while they wait
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long reservedBytes;
+    private int runningSolves;
+
+    public MemoryBudget(GraphReloader graphReloader, SolveResultCache resultCache, MeterRegistry meterRegistry,
+                        @Value("${memory.reserve-mb:256}") long reserveMb,
+                        @Value("${memory.solve-overhead-mb:16}") long solveOverheadMb,
+                        @Value("${matrix.tiled.min-locations:2000}") int tiledMinLocations) {
+        this.graphReloader = graphReloader;
+        this.resultCache = resultCache;
+        this.containerLimitBytes = containerLimit();
+        this.maxHeapBytes = Runtime.getRuntime().maxMemory();
+        this.reserveBytes = reserveMb << 20;
+        this.solveOverheadBytes = solveOverheadMb << 20;
+        this.tiledMinLocations = tiledMinLocations;
+        log.info("Memory limit {} MB, max heap {} MB, result cache bound {} MB",
+                containerLimitBytes >> 20, maxHeapBytes >> 20, resultCache.getMaxBytes() >> 20);
+
+        Gauge.builder("memory.graphs.bytes", this, budget -> budget.graphBytes(true))
+                .tag("storage", "heap")
+                .description("Routing graph storage held on the heap")
+                .register(meterRegistry);
+        Gauge.builder("memory.graphs.bytes", this, budget -> budget.graphBytes(false))
+                .tag("storage", "mapped")
+                .description("Routing graph storage mapped off-heap")
+                .register(meterRegistry);
+        Gauge.builder("memory.cache.bytes", resultCache, SolveResultCache::estimatedBytes)
+                .description("Estimated heap use of cached solve results")
+                .register(meterRegistry);
+        Gauge.builder("memory.matrix.tiles.bytes", TiledRoutingMatrix::offHeapBytes)
+                .description("Off-heap storage of tiled routing matrices until the garbage collector frees it")
+                .register(meterRegistry);
+        Gauge.builder("memory.solver.reserved.bytes", this, MemoryBudget::getReservedBytes)
+                .description("Estimated working set of running solves")
+                .register(meterRegistry);
+        Gauge.builder("memory.solver.budget.bytes", this, MemoryBudget::solverBudgetBytes)
+                .description("Heap available to running solves")
+                .register(meterRegistry);
+    }
+
+    public long workingSetBytes(SolveKind kind, int locations) {
+        if (kind == SolveKind.VRP && locations >= tiledMinLocations) {
+            return (long) locations * locations / 8 + locations * TILED_BYTES_PER_LOCATION + solveOverheadBytes;
+        }
+        return (long) locations * locations * BYTES_PER_LOCATION_PAIR + solveOverheadBytes;
+    }
+
+    public long solverBudgetBytes() {
+        return Math.max(0, maxHeapBytes - graphBytes(true) - resultCache.getMaxBytes() - reserveBytes);
+    }
+
+    // False if the deadline passed before the working set fit into the budget
+    public boolean reserve(long bytes, long deadlineNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (runningSolves > 0 && reservedBytes + bytes > solverBudgetBytes()) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                released.awaitNanos(remaining);
+            }
+            reservedBytes += bytes;
+            runningSolves++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long bytes) {
+        lock.lock();
+        try {
+            reservedBytes -= bytes;
+            runningSolves--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getReservedBytes() {
+        lock.lock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunningSolves() {
+        lock.lock();
+        try {
+            return runningSolves;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getContainerLimitBytes() {
+        return containerLimitBytes;
+    }
+
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    public long graphBytes(boolean onHeap) {
+        return graphReloader.getEngines().stream()
+                .filter(engine -> engine.isOnHeap() == onHeap)
+                .flatMap(engine -> engine.getFootprint().values().stream())
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    // The JDK reports the cgroup limit when running in a container, physical memory otherwise
+    private static long containerLimit() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getTotalMemorySize();
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+}
@@ -0,0 +1,331 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.TspRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Parallel multi-start TSP search: randomized nearest-neighbour starts improved with 2-opt and Or-opt.
+// Start 0 is the plain greedy tour; each start has its own seeded random stream and ties go to the lower start,
+// so a given seed gives the same tour regardless of thread scheduling unless the deadline is hit.
+@Component
+public class MultiStartTspSolver {
+    private static final double EPSILON = 1e-9;
+    private static final int CANDIDATE_WIDTH = 3; // Randomized construction picks among the 3 nearest unvisited
+    private static final int MAX_SEGMENT_LENGTH = 3; // Or-opt moves segments of 1 to 3 stops
+
+    private final ForkJoinPool pool;
+    private final int startsPerThread;
+    private final long timeLimitMs;
+    private final long seed;
+    private final int neighbors;
+    private final String defaultPreset;
+
+    public MultiStartTspSolver(ForkJoinPool solverPool,
+                               @Value("${tsp.solver.starts-per-thread:4}") int startsPerThread,
+                               @Value("${tsp.solver.time-limit-ms:2000}") long timeLimitMs,
+                               @Value("${tsp.solver.seed:42}") long seed,
+                               @Value("${tsp.solver.neighbors:16}") int neighbors,
+                               @Value("${tsp.solver.preset:balanced}") String defaultPreset) {
+        this.pool = solverPool;
+        this.startsPerThread = Math.max(1, startsPerThread);
+        this.timeLimitMs = timeLimitMs;
+        this.seed = seed;
+        this.neighbors = neighbors;
+        this.defaultPreset = defaultPreset;
+    }
+
+    public SolvePreset preset(TspRequest.Configuration configuration) {
+        return SolvePreset.of(configuration != null ? configuration.getPreset() : null, defaultPreset);
+    }
+
+    // Closed tour from and back to index 0 over a row-major, possibly asymmetric cost matrix; the return leg is implicit
+    public int[] solve(double[] cost, int size, TspRequest.Configuration configuration, SolvePreset preset) {
+        if (size <= 2) {
+            int[] tour = new int[size];
+            for (int i = 0; i < size; i++) {
+                tour[i] = i;
+            }
+            return tour;
+        }
+
+        long runSeed = configuration != null && configuration.getSeed() != null ? configuration.getSeed() : seed;
+        int starts = configuration != null && configuration.getStarts() != null
+                ? Math.max(1, configuration.getStarts())
+                : !preset.isRandomizedConstruction() ? 1
+                : pool.getParallelism() * (preset.getTspStartsPerThread() != null ? preset.getTspStartsPerThread() : startsPerThread);
+        long limit = configuration != null && configuration.getTimeLimitMs() != null ? configuration.getTimeLimitMs()
+                : preset.getTspTimeLimitMs() != null ? preset.getTspTimeLimitMs() : timeLimitMs;
+        Budget budget = new Budget(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limit));
+        int k = configuration != null && configuration.getNeighbors() != null ? configuration.getNeighbors()
+                : preset.getTspNeighbors() != null ? preset.getTspNeighbors() : neighbors;
+        NeighborLists lists = NeighborLists.of(cost, size, k);
+        boolean orOpt = preset.isOrOpt();
+
+        AtomicReference<Tour> best = new AtomicReference<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(starts);
+        for (int s = 0; s < starts; s++) {
+            final int startIndex = s;
+            tasks.add(pool.submit(() -> {
+                // Start 0 always runs so there is a result even with an exhausted budget
+                if (startIndex > 0 && budget.exhausted()) {
+                    return;
+                }
+                SplittableRandom random = startIndex == 0 ? null : new SplittableRandom(runSeed ^ (0x9E3779B97F4A7C15L * startIndex));
+                int[] order = construct(cost, size, lists, random);
+                improve(order, cost, size, lists, orOpt, budget);
+                best.accumulateAndGet(new Tour(order, tourCost(order, cost, size), startIndex), MultiStartTspSolver::better);
+            }));
+        }
+        await(tasks, budget);
+
+        return best.get().order();
+    }
+
+    // Unlike join, get is interruptible, so a cancelled caller stops the search instead of waiting for the deadline
+    private static void await(List<ForkJoinTask<?>> tasks, Budget budget) {
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            budget.cancel();
+            tasks.forEach(task -> task.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("TSP solve cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Error solving TSP: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static Tour better(Tour current, Tour candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        if (candidate.cost() < current.cost() - EPSILON
+                || (Math.abs(candidate.cost() - current.cost()) <= EPSILON && candidate.startIndex() < current.startIndex())) {
+            return candidate;
+        }
+        return current;
+    }
+
+    // Nearest-neighbour construction; with a random source it picks uniformly among the closest candidates
+    private static int[] construct(double[] cost, int size, NeighborLists lists, SplittableRandom random) {
+        int[] order = new int[size];
+        boolean[] visited = new boolean[size];
+        int[] candidates = new int[CANDIDATE_WIDTH];
+        double[] candidateCosts = new double[CANDIDATE_WIDTH];
+        int width = random == null ? 1 : CANDIDATE_WIDTH;
+
+        visited[0] = true;
+        int current = 0;
+        for (int position = 1; position < size; position++) {
+            // Neighbour lists are sorted by cost, so the first unvisited entries are the closest candidates
+            int found = 0;
+            for (int r = 0; r < lists.getK() && found < width; r++) {
+                int next = lists.get(current, r);
+                if (!visited[next]) {
+                    candidates[found++] = next;
+                }
+            }
+            if (found == 0) {
+                found = scanNearest(cost, size, current, visited, width, candidates, candidateCosts);
+            }
+            int chosen = candidates[random == null ? 0 : random.nextInt(found)];
+            order[position] = chosen;
+            visited[chosen] = true;
+            current = chosen;
+        }
+        return order;
+    }
+
+    // Full scan, only needed once every listed neighbour of the current location is visited
+    private static int scanNearest(double[] cost, int size, int current, boolean[] visited, int width,
+                                   int[] candidates, double[] candidateCosts) {
+        int found = 0;
+        for (int next = 1; next < size; next++) {
+            if (visited[next]) {
+                continue;
+            }
+            double c = cost[current * size + next];
+            if (found == width && c >= candidateCosts[found - 1]) {
+                continue;
+            }
+            // Insert into the small sorted candidate list
+            int slot = found < width ? found++ : found - 1;
+            while (slot > 0 && candidateCosts[slot - 1] > c) {
+                candidates[slot] = candidates[slot - 1];
+                candidateCosts[slot] = candidateCosts[slot - 1];
+                slot--;
+            }
+            candidates[slot] = next;
+            candidateCosts[slot] = c;
+        }
+        return found;
+    }
+
+    private static void improve(int[] order, double[] cost, int size, NeighborLists lists, boolean orOpt, Budget budget) {
+        int[] position = new int[size];
+        positions(order, position);
+        boolean improved = true;
+        while (improved && !budget.exhausted()) {
+            improved = twoOpt(order, position, cost, size, lists, budget);
+            if (orOpt) {
+                improved |= orOpt(order, position, cost, size, lists, budget);
+            }
+        }
+    }
+
+    // 2-opt with segment reversal; prefix sums keep the delta exact on asymmetric matrices.
+    // For the edge (prev, first) only neighbours of prev closer than first are tried as the new successor.
+    private static boolean twoOpt(int[] order, int[] position, double[] cost, int size, NeighborLists lists, Budget budget) {
+        double[] forward = new double[size];
+        double[] backward = new double[size];
+        prefixSums(order, cost, size, forward, backward);
+
+        boolean improved = false;
+        for (int i = 1; i < size - 1 && !budget.exhausted(); i++) {
+            int prev = order[i - 1];
+            int first = order[i];
+            double current = cost[prev * size + first];
+            for (int r = 0; r < lists.getK(); r++) {
+                int last = lists.get(prev, r);
+                if (cost[prev * size + last] >= current) {
+                    break;
+                }
+                int j = position[last];
+                if (j <= i) {
+                    continue;
+                }
+                int next = order[(j + 1) % size];
+                double delta = cost[prev * size + last] + cost[first * size + next]
+                        - cost[prev * size + first] - cost[last * size + next]
+                        + (backward[j] - backward[i]) - (forward[j] - forward[i]);
+                if (delta < -EPSILON) {
+                    reverse(order, i, j);
+                    positions(order, position);
+                    prefixSums(order, cost, size, forward, backward);
+                    improved = true;
+                    break;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Or-opt: relocate a segment of 1..3 consecutive stops without reversing it, either right after a
+    // neighbour of its first stop or right before a neighbour of its last stop
+    private static boolean orOpt(int[] order, int[] position, double[] cost, int size, NeighborLists lists, Budget budget) {
+        boolean improved = false;
+        for (int length = 1; length <= MAX_SEGMENT_LENGTH && length < size - 1; length++) {
+            for (int i = 1; i + length <= size && !budget.exhausted(); i++) {
+                int prev = order[i - 1];
+                int first = order[i];
+                int last = order[i + length - 1];
+                int next = order[(i + length) % size];
+                double removeGain = cost[prev * size + first] + cost[last * size + next] - cost[prev * size + next];
+
+                for (int candidate = 0; candidate < 2 * lists.getK(); candidate++) {
+                    int r = candidate / 2;
+                    int p = candidate % 2 == 0
+                            ? position[lists.get(first, r)]
+                            : (position[lists.get(last, r)] - 1 + size) % size;
+                    if (p >= i - 1 && p <= i + length - 1) {
+                        continue;
+                    }
+                    int a = order[p];
+                    int b = order[(p + 1) % size];
+                    double addCost = cost[a * size + first] + cost[last * size + b] - cost[a * size + b];
+                    if (addCost - removeGain < -EPSILON) {
+                        moveSegment(order, i, length, p);
+                        positions(order, position);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    private static void positions(int[] order, int[] position) {
+        for (int k = 0; k < order.length; k++) {
+            position[order[k]] = k;
+        }
+    }
+
+    private static void prefixSums(int[] order, double[] cost, int size, double[] forward, double[] backward) {
+        forward[0] = 0;
+        backward[0] = 0;
+        for (int k = 1; k < size; k++) {
+            forward[k] = forward[k - 1] + cost[order[k - 1] * size + order[k]];
+            backward[k] = backward[k - 1] + cost[order[k] * size + order[k - 1]];
+        }
+    }
+
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int tmp = order[from];
+            order[from++] = order[to];
+            order[to--] = tmp;
+        }
+    }
+
+    private static void moveSegment(int[] order, int start, int length, int after) {
+        int[] moved = new int[order.length];
+        int k = 0;
+        for (int m = 0; m < order.length; m++) {
+            if (m >= start && m < start + length) {
+                continue;
+            }
+            moved[k++] = order[m];
+            if (m == after) {
+                for (int s = 0; s < length; s++) {
+                    moved[k++] = order[start + s];
+                }
+            }
+        }
+        System.arraycopy(moved, 0, order, 0, order.length);
+    }
+
+    static double tourCost(int[] order, double[] cost, int size) {
+        double total = 0;
+        for (int k = 1; k < size; k++) {
+            total += cost[order[k - 1] * size + order[k]];
+        }
+        return total + cost[order[size - 1] * size + order[0]];
+    }
+
+    private record Tour(int[] order, double cost, int startIndex) {
+    }
+
+    // Deadline of one solve, cut short when the caller is cancelled
+    private static final class Budget {
+        private final long deadline;
+        private volatile boolean cancelled;
+
+        Budget(long deadline) {
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean exhausted() {
+            return cancelled || System.nanoTime() >= deadline;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Only lets jsprit try routes that are empty or pass within the k nearest locations of the job. When no route is near,
+// every route qualifies, so no job becomes unassignable. Register it as a module listener, it follows the solution.
+final class NeighborInsertionConstraint implements HardRouteConstraint, InsertionStartsListener, JobInsertedListener {
+    private final NeighborLists neighbors;
+    private final boolean[] routed;  // a stop of the current solution is at this location
+    private final boolean[] reached; // this location is in the neighbour list of a routed location
+    private volatile boolean tracking;
+
+    NeighborInsertionConstraint(NeighborLists neighbors) {
+        this.neighbors = neighbors;
+        this.routed = new boolean[neighbors.getSize()];
+        this.reached = new boolean[neighbors.getSize()];
+    }
+
+    @Override
+    public boolean fulfilled(JobInsertionContext insertionContext) {
+        if (insertionContext.getRoute().isEmpty()) {
+            return true;
+        }
+        int[] locations = locations(insertionContext.getJob());
+        if (near(locations, insertionContext.getNewVehicle().getStartLocation().getIndex())) {
+            return true;
+        }
+        for (TourActivity activity : insertionContext.getRoute().getActivities()) {
+            if (near(locations, activity.getLocation().getIndex())) {
+                return true;
+            }
+        }
+        // Far from this route; only pruned while some other route passes near the job
+        return !tracking || !nearAnyRoute(locations);
+    }
+
+    // Insertion runs start after the ruin, so stops only get added until the next run starts
+    @Override
+    public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        Arrays.fill(routed, false);
+        Arrays.fill(reached, false);
+        for (VehicleRoute route : vehicleRoutes) {
+            for (TourActivity activity : route.getActivities()) {
+                mark(activity.getLocation().getIndex());
+            }
+        }
+        tracking = true;
+    }
+
+    @Override
+    public void informJobInserted(Job job, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+        for (int location : locations(job)) {
+            mark(location);
+        }
+    }
+
+    private void mark(int location) {
+        if (routed[location]) {
+            return;
+        }
+        routed[location] = true;
+        reached[location] = true;
+        for (int rank = 0; rank < neighbors.getK(); rank++) {
+            reached[neighbors.get(location, rank)] = true;
+        }
+    }
+
+    private boolean nearAnyRoute(int[] locations) {
+        for (int location : locations) {
+            if (reached[location]) {
+                return true;
+            }
+            for (int rank = 0; rank < neighbors.getK(); rank++) {
+                if (routed[neighbors.get(location, rank)]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean near(int[] locations, int other) {
+        for (int location : locations) {
+            if (location == other || neighbors.isNeighbor(location, other) || neighbors.isNeighbor(other, location)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int[] locations(Job job) {
+        if (job instanceof Shipment shipment) {
+            return new int[]{shipment.getPickupLocation().getIndex(), shipment.getDeliveryLocation().getIndex()};
+        }
+        return new int[]{((Service) job).getLocation().getIndex()};
+    }
+}
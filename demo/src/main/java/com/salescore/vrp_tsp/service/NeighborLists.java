@@ -0,0 +1,93 @@
+package com.salescore.vrp_tsp.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+
+// The k nearest locations of every location by road cost, sorted by increasing cost so callers can stop early
+public final class NeighborLists {
+    private final int size;
+    private final int k;
+    private final int[] neighbors; // location * k + rank
+    private final BitSet membership; // location * size + neighbor
+
+    private NeighborLists(int size, int k, int[] neighbors, BitSet membership) {
+        this.size = size;
+        this.k = k;
+        this.neighbors = neighbors;
+        this.membership = membership;
+    }
+
+    public static NeighborLists of(double[] cost, int size, int k) {
+        int width = Math.max(0, Math.min(k, size - 1));
+        int[] neighbors = new int[size * width];
+        BitSet membership = new BitSet(size * size);
+        double[] best = new double[width];
+
+        for (int from = 0; from < size; from++) {
+            // Bounded insertion sort keeps the k cheapest targets of this row
+            int found = 0;
+            int offset = from * width;
+            for (int to = 0; to < size; to++) {
+                if (to == from) {
+                    continue;
+                }
+                double c = cost[from * size + to];
+                if (found == width && (width == 0 || c >= best[width - 1])) {
+                    continue;
+                }
+                int slot = found < width ? found++ : width - 1;
+                while (slot > 0 && best[slot - 1] > c) {
+                    best[slot] = best[slot - 1];
+                    neighbors[offset + slot] = neighbors[offset + slot - 1];
+                    slot--;
+                }
+                best[slot] = c;
+                neighbors[offset + slot] = to;
+            }
+            for (int r = 0; r < width; r++) {
+                membership.set(from * size + neighbors[offset + r]);
+            }
+        }
+        return new NeighborLists(size, width, neighbors, membership);
+    }
+
+    // Ranks only the given candidates per location, for tiled matrices that are not fully routed
+    public static NeighborLists of(TravelMatrix matrix, int[][] candidates, int k) {
+        int size = matrix.getSize();
+        int width = size == 0 ? 0 : Math.max(0, Math.min(k, candidates[0].length));
+        int[] neighbors = new int[size * width];
+        BitSet membership = new BitSet(size * size);
+
+        for (int from = 0; from < size; from++) {
+            int location = from;
+            int[] ranked = Arrays.stream(candidates[from])
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(to -> matrix.distance(location, to)))
+                    .mapToInt(Integer::intValue)
+                    .limit(width)
+                    .toArray();
+            System.arraycopy(ranked, 0, neighbors, from * width, ranked.length);
+            for (int to : ranked) {
+                membership.set(from * size + to);
+            }
+        }
+        return new NeighborLists(size, width, neighbors, membership);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int get(int location, int rank) {
+        return neighbors[location * k + rank];
+    }
+
+    public boolean isNeighbor(int location, int candidate) {
+        return membership.get(location * size + candidate);
+    }
+}
@@ -0,0 +1,185 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.TspRequest;
+import com.salescore.vrp_tsp.model.VrpRequest;
+import lombok.Getter;
+
+import java.util.List;
+
+// Index-based view of a solve request: depots first, then services, then a pickup/delivery pair per shipment.
+// Demands are flat, dimensions entries per location, with deliveries negated so loads add up along a route.
+@Getter
+public final class ProblemIndex {
+    public static final long NO_WINDOW_START = 0L;
+    public static final long NO_WINDOW_END = Long.MAX_VALUE;
+
+    private final int size;
+    private final int depotCount;
+    private final int serviceCount;
+    private final int shipmentCount;
+    private final int dimensions;
+    private final String[] jobIds;      // Service or shipment id, vehicle id for depots
+    private final String[] locationIds;
+    private final String[] names;
+    private final double[] lat;
+    private final double[] lon;
+    private final int[] demand;         // location * dimensions + dimension
+    private final long[] serviceTime;   // Seconds
+    private final long[] windowStart;
+    private final long[] windowEnd;
+
+    private ProblemIndex(int depotCount, int serviceCount, int shipmentCount, int dimensions) {
+        this.size = depotCount + serviceCount + 2 * shipmentCount;
+        this.depotCount = depotCount;
+        this.serviceCount = serviceCount;
+        this.shipmentCount = shipmentCount;
+        this.dimensions = dimensions;
+        this.jobIds = new String[size];
+        this.locationIds = new String[size];
+        this.names = new String[size];
+        this.lat = new double[size];
+        this.lon = new double[size];
+        this.demand = new int[size * dimensions];
+        this.serviceTime = new long[size];
+        this.windowStart = new long[size];
+        this.windowEnd = new long[size];
+    }
+
+    public static ProblemIndex of(TspRequest tspRequest) {
+        TspRequest.Vehicle vehicle = tspRequest.getVehicle();
+        List<TspRequest.ServiceLocation> services = tspRequest.getServices();
+        ProblemIndex index = new ProblemIndex(1, services.size(), 0, 1);
+
+        TspRequest.Vehicle.StartAddress start = vehicle.getStartAddress();
+        index.set(0, vehicle.getVehicleId(), start.getLocationId(), start.getLocationName(), start.getLat(), start.getLon(),
+                NO_WINDOW_START, NO_WINDOW_END);
+
+        for (int s = 0; s < services.size(); s++) {
+            TspRequest.ServiceLocation service = services.get(s);
+            TspRequest.ServiceLocation.Address address = service.getAddress();
+            index.set(s + 1, service.getId(), address.getLocationId(), address.getName(), address.getLat(), address.getLon(),
+                    NO_WINDOW_START, NO_WINDOW_END);
+        }
+        return index;
+    }
+
+    public static ProblemIndex of(VrpRequest vrpRequest) {
+        List<VrpRequest.Vehicle> vehicles = vrpRequest.getVehicles();
+        List<VrpRequest.VrpService> services = vrpRequest.getServices() != null ? vrpRequest.getServices() : List.of();
+        List<VrpRequest.VrpShipment> shipments = vrpRequest.getShipments() != null ? vrpRequest.getShipments() : List.of();
+        // 0 until a sizes or capacities list fixes the dimension count
+        int dimensions = 0;
+        for (VrpRequest.VrpService service : services) {
+            dimensions = dimensions("service " + service.getId(), service.getSizes(), service.getSize(), dimensions);
+        }
+        for (VrpRequest.VrpShipment shipment : shipments) {
+            dimensions = dimensions("shipment " + shipment.getId(), shipment.getSizes(), shipment.getSize(), dimensions);
+        }
+        for (VrpRequest.VehicleType type : vrpRequest.getVehicleTypes()) {
+            dimensions = dimensions("vehicle type " + type.getTypeId(), type.getCapacities(), type.getCapacity(), dimensions);
+        }
+        dimensions = Math.max(dimensions, 1);
+        ProblemIndex index = new ProblemIndex(vehicles.size(), services.size(), shipments.size(), dimensions);
+
+        for (int v = 0; v < vehicles.size(); v++) {
+            VrpRequest.Vehicle vehicle = vehicles.get(v);
+            VrpRequest.Vehicle.StartAddress start = vehicle.getStartAddress();
+            index.set(v, vehicle.getVehicleId(), start.getLocationId(), null, start.getLat(), start.getLon(),
+                    vehicle.getStartTime() != null ? vehicle.getStartTime() : NO_WINDOW_START,
+                    vehicle.getEndTime() != null ? vehicle.getEndTime() : NO_WINDOW_END);
+        }
+
+        for (int s = 0; s < services.size(); s++) {
+            VrpRequest.VrpService service = services.get(s);
+            VrpRequest.VrpService.TimeWindow timeWindow = service.getTimewindow();
+            int i = vehicles.size() + s;
+            index.set(i, service.getId(), service.getAddress().getLocationId(), service.getName(),
+                    service.getAddress().getLat(), service.getAddress().getLon(),
+                    timeWindow != null && timeWindow.getStartTime() != null ? timeWindow.getStartTime() : NO_WINDOW_START,
+                    timeWindow != null && timeWindow.getEndTime() != null ? timeWindow.getEndTime() : NO_WINDOW_END);
+
+            index.setDemand(i, service.getSizes(), service.getSize(), 1);
+            index.serviceTime[i] = service.getServiceTime() != null ? service.getServiceTime() : 0L;
+        }
+
+        for (int s = 0; s < shipments.size(); s++) {
+            VrpRequest.VrpShipment shipment = shipments.get(s);
+            int pickup = index.pickupIndex(s);
+            index.setStop(pickup, shipment, shipment.getPickup());
+            index.setStop(pickup + 1, shipment, shipment.getDelivery());
+            index.setDemand(pickup, shipment.getSizes(), shipment.getSize(), 1);
+            index.setDemand(pickup + 1, shipment.getSizes(), shipment.getSize(), -1);
+        }
+        return index;
+    }
+
+    public int pickupIndex(int shipment) {
+        return depotCount + serviceCount + 2 * shipment;
+    }
+
+    public boolean isShipment(int location) {
+        return location >= depotCount + serviceCount;
+    }
+
+    public int demand(int location, int dimension) {
+        return demand[location * dimensions + dimension];
+    }
+
+    public boolean isDepot(int location) {
+        return location < depotCount;
+    }
+
+    public boolean hasTimeWindow(int location) {
+        return windowStart[location] != NO_WINDOW_START || windowEnd[location] != NO_WINDOW_END;
+    }
+
+    // Sizes and capacities must be non-negative and every list must have the same length; a scalar is the first dimension
+    private static int dimensions(String owner, List<Integer> values, int scalar, int dimensions) {
+        if (values == null || values.isEmpty()) {
+            if (scalar < 0) {
+                throw new IllegalArgumentException("Invalid size of " + owner + ": " + scalar + " is negative.");
+            }
+            return dimensions;
+        }
+        for (Integer value : values) {
+            if (value == null || value < 0) {
+                throw new IllegalArgumentException("Invalid sizes of " + owner + ": " + values + " has a missing or negative entry.");
+            }
+        }
+        if (dimensions != 0 && values.size() != dimensions) {
+            throw new IllegalArgumentException("Invalid sizes of " + owner + ": " + values.size()
+                    + " dimensions where other jobs or vehicle types have " + dimensions + ".");
+        }
+        return values.size();
+    }
+
+    private void setStop(int i, VrpRequest.VrpShipment shipment, VrpRequest.VrpShipment.Stop stop) {
+        VrpRequest.VrpService.TimeWindow timeWindow = stop.getTimewindow();
+        set(i, shipment.getId(), stop.getAddress().getLocationId(), shipment.getName(),
+                stop.getAddress().getLat(), stop.getAddress().getLon(),
+                timeWindow != null && timeWindow.getStartTime() != null ? timeWindow.getStartTime() : NO_WINDOW_START,
+                timeWindow != null && timeWindow.getEndTime() != null ? timeWindow.getEndTime() : NO_WINDOW_END);
+        serviceTime[i] = stop.getServiceTime() != null ? stop.getServiceTime() : 0L;
+    }
+
+    private void setDemand(int i, List<Integer> sizes, int scalarSize, int sign) {
+        if (sizes != null) {
+            for (int d = 0; d < sizes.size(); d++) {
+                demand[i * dimensions + d] = sign * sizes.get(d);
+            }
+        } else {
+            demand[i * dimensions] = sign * scalarSize;
+        }
+    }
+
+    private void set(int i, String jobId, String locationId, String name, double latitude, double longitude,
+                     long earliest, long latest) {
+        jobIds[i] = jobId;
+        locationIds[i] = locationId;
+        names[i] = name;
+        lat[i] = latitude;
+        lon[i] = longitude;
+        windowStart[i] = earliest;
+        windowEnd[i] = latest;
+    }
+}
@@ -0,0 +1,106 @@
+package com.salescore.vrp_tsp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+// Worker node reached over HTTP: this same application, taking jobs on /internal/solve/{kind} with the shared secret
+public class RemoteSolveWorker implements SolveWorker {
+    // Request header carrying the shared secret that worker nodes require on their job endpoint
+    public static final String SECRET_HEADER = "X-Worker-Secret";
+    private static final Duration HEALTH_TIMEOUT = Duration.ofSeconds(2);
+
+    private final URI baseUri;
+    private final int capacity;
+    private final Duration requestTimeout;
+    private final String secret;
+    private final HttpClient httpClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public RemoteSolveWorker(String baseUrl, int capacity, Duration requestTimeout, String secret, HttpClient httpClient) {
+        this.baseUri = URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        this.capacity = capacity;
+        this.requestTimeout = requestTimeout;
+        this.secret = secret;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public String getId() {
+        return baseUri.toString();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String solve(SolveKind kind, Object request) {
+        String body;
+        try {
+            body = mapper.writeValueAsString(request);
+        } catch (Exception e) {
+            throw new RuntimeException("Error serializing solve request: " + e.getMessage(), e);
+        }
+        HttpRequest httpRequest = HttpRequest.newBuilder(baseUri.resolve("internal/solve/" + kind.getPath()))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header(SECRET_HEADER, secret)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpTimeoutException e) {
+            // The worker is alive but the solve outran the request timeout; it would time out on any worker
+            throw new RuntimeException("Error solving on worker " + getId() + ": no response within " + requestTimeout.toSeconds() + " s", e);
+        } catch (IOException e) {
+            // Connection refused or dropped mid-solve: the worker is down, the job can run elsewhere
+            throw new WorkerUnavailableException("Worker " + getId() + " unavailable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Solve cancelled by caller");
+        }
+
+        int status = response.statusCode();
+        if (status == 200) {
+            return response.body();
+        }
+        if (status == 429) {
+            throw new WorkerBusyException("Worker " + getId() + " is busy: " + response.body());
+        }
+        if (status == 401 || status == 403 || status == 503) {
+            // A wrong worker secret is a configuration fault of this worker, not of the client's request
+            throw new WorkerUnavailableException("Worker " + getId() + " refused the job: HTTP " + status, null);
+        }
+        if (status == 400) {
+            throw new IllegalArgumentException(response.body());
+        }
+        throw new RuntimeException("Error solving on worker " + getId() + ": HTTP " + status + " " + response.body());
+    }
+
+    @Override
+    public boolean checkHealth() {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("actuator/health"))
+                .timeout(HEALTH_TIMEOUT)
+                .GET()
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
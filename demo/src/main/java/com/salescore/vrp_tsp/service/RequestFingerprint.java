@@ -0,0 +1,81 @@
+package com.salescore.vrp_tsp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.salescore.vrp_tsp.model.TspRequest;
+import com.salescore.vrp_tsp.model.VrpRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+// SHA-256 key of a solve request per tenant; lists are hashed order-insensitively so reordered resubmissions match
+public final class RequestFingerprint {
+    // Sorted keys make the JSON of an element canonical; JSON escaping keeps free text from running into other fields
+    private static final ObjectMapper CANONICAL = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private RequestFingerprint() {
+    }
+
+    public static String of(String tenant, VrpRequest vrpRequest) {
+        StringBuilder canonical = new StringBuilder("vrp");
+        append(canonical, "tenant", tenant);
+        appendSorted(canonical, "vehicles", vrpRequest.getVehicles());
+        appendSorted(canonical, "vehicleTypes", vrpRequest.getVehicleTypes());
+        appendSorted(canonical, "services", vrpRequest.getServices());
+        appendSorted(canonical, "shipments", vrpRequest.getShipments());
+        append(canonical, "configuration", json(vrpRequest.getConfiguration()));
+        return sha256(canonical);
+    }
+
+    public static String of(String tenant, TspRequest tspRequest, String method) {
+        StringBuilder canonical = new StringBuilder("tsp-").append(method.toLowerCase());
+        append(canonical, "tenant", tenant);
+        append(canonical, "vehicle", json(tspRequest.getVehicle()));
+        appendSorted(canonical, "services", tspRequest.getServices());
+        append(canonical, "configuration", json(tspRequest.getConfiguration()));
+        return sha256(canonical);
+    }
+
+    // Length-prefixed, so element boundaries cannot be forged by the content
+    private static void appendSorted(StringBuilder canonical, String name, Collection<?> elements) {
+        canonical.append('|').append(name).append('=');
+        if (elements == null) {
+            canonical.append("null");
+            return;
+        }
+        List<String> sorted = elements.stream().map(RequestFingerprint::json).sorted().toList();
+        canonical.append(sorted.size()).append(':');
+        sorted.forEach(element -> canonical.append(element.length()).append(':').append(element));
+    }
+
+    private static void append(StringBuilder canonical, String name, String element) {
+        canonical.append('|').append(name).append('=').append(element.length()).append(':').append(element);
+    }
+
+    private static String json(Object element) {
+        try {
+            return CANONICAL.writeValueAsString(element);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing request for its fingerprint: " + e.getMessage(), e);
+        }
+    }
+
+    private static String sha256(CharSequence canonical) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
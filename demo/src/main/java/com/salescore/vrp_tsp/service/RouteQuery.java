@@ -0,0 +1,131 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.GHRequest;
+import com.graphhopper.GraphHopper;
+import com.graphhopper.config.CHProfile;
+import com.graphhopper.config.LMProfile;
+import com.graphhopper.config.Profile;
+import com.graphhopper.json.Statement;
+import com.graphhopper.routing.ev.RoadClass;
+import com.graphhopper.routing.weighting.custom.CustomProfile;
+import com.graphhopper.util.CustomModel;
+import com.graphhopper.util.Parameters;
+import com.salescore.vrp_tsp.model.Routing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Routing options of a request resolved to the fastest algorithm that supports them: CH on the "car" profile unless
+// avoided road classes or headings change the weighting, which need LM on the custom-model "car_flexible" profile.
+public final class RouteQuery {
+    public static final String CH_PROFILE = "car";
+    public static final String FLEXIBLE_PROFILE = "car_flexible";
+
+    public static final RouteQuery DEFAULT = new RouteQuery(false, List.of(), null, null);
+
+    private final boolean flexible;
+    private final List<String> snapPreventions;
+    private final CustomModel customModel; // null unless road classes are avoided
+    private final double[] headings;       // per location index, NaN for no heading; null if none given
+
+    private RouteQuery(boolean flexible, List<String> snapPreventions, CustomModel customModel, double[] headings) {
+        this.flexible = flexible;
+        this.snapPreventions = snapPreventions;
+        this.customModel = customModel;
+        this.headings = headings;
+    }
+
+    // Headings are looked up by the location id of each index
+    public static RouteQuery of(Routing routing, String[] locationIds) {
+        if (routing == null) {
+            return DEFAULT;
+        }
+        List<String> snapPreventions = routing.getSnapPreventions() != null ? routing.getSnapPreventions() : List.of();
+
+        CustomModel customModel = null;
+        if (routing.getAvoidRoadClasses() != null && !routing.getAvoidRoadClasses().isEmpty()) {
+            customModel = new CustomModel();
+            for (String roadClass : routing.getAvoidRoadClasses()) {
+                customModel.addToPriority(Statement.If("road_class == " + roadClass(roadClass), Statement.Op.MULTIPLY, 0));
+            }
+        }
+
+        double[] headings = null;
+        Map<String, Double> requested = routing.getHeadings();
+        if (requested != null && !requested.isEmpty()) {
+            headings = new double[locationIds.length];
+            Arrays.fill(headings, Double.NaN);
+            for (int i = 0; i < locationIds.length; i++) {
+                Double heading = requested.get(locationIds[i]);
+                if (heading != null) {
+                    headings[i] = heading;
+                }
+            }
+        }
+
+        boolean needsFlexible = customModel != null || headings != null;
+        String mode = routing.getMode() != null ? routing.getMode().toLowerCase(Locale.ROOT) : "auto";
+        switch (mode) {
+            case "auto":
+                return new RouteQuery(needsFlexible, snapPreventions, customModel, headings);
+            case "lm":
+                return new RouteQuery(true, snapPreventions, customModel, headings);
+            case "ch":
+                if (needsFlexible) {
+                    throw new IllegalArgumentException("Routing mode 'ch' does not support avoidRoadClasses or headings, use 'lm' or 'auto'.");
+                }
+                return new RouteQuery(false, snapPreventions, null, null);
+            default:
+                throw new IllegalArgumentException("Invalid routing mode '" + routing.getMode() + "'. Use 'auto', 'ch' or 'lm'.");
+        }
+    }
+
+    // chProfile must be named CH_PROFILE; baseModel approximates its weighting for the flexible profile
+    public static void configure(GraphHopper hopper, Profile chProfile, CustomModel baseModel) {
+        Profile flexibleProfile = new CustomProfile(FLEXIBLE_PROFILE).setCustomModel(baseModel)
+                .setVehicle(chProfile.getVehicle())
+                .setTurnCosts(chProfile.isTurnCosts());
+        hopper.setProfiles(chProfile, flexibleProfile);
+        hopper.getCHPreparationHandler().setCHProfiles(new CHProfile(CH_PROFILE));
+        hopper.getLMPreparationHandler().setLMProfiles(new LMProfile(FLEXIBLE_PROFILE));
+    }
+
+    public boolean isFlexible() {
+        return flexible;
+    }
+
+    // Unrestricted CH routes, which can be shared between requests
+    public boolean isPlain() {
+        return !flexible && snapPreventions.isEmpty();
+    }
+
+    public GHRequest request(int from, int to, double[] lat, double[] lon) {
+        GHRequest request = new GHRequest(lat[from], lon[from], lat[to], lon[to]).setLocale("en");
+        if (!snapPreventions.isEmpty()) {
+            request.setSnapPreventions(snapPreventions);
+        }
+        if (!flexible) {
+            return request.setProfile(CH_PROFILE);
+        }
+
+        request.setProfile(FLEXIBLE_PROFILE);
+        request.putHint(Parameters.CH.DISABLE, true);
+        if (customModel != null) {
+            request.setCustomModel(customModel);
+        }
+        if (headings != null) {
+            request.setHeadings(List.of(headings[from], headings[to]));
+        }
+        return request;
+    }
+
+    private static String roadClass(String name) {
+        try {
+            return RoadClass.valueOf(name.toUpperCase(Locale.ROOT)).name();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown road class '" + name + "'.", e);
+        }
+    }
+}
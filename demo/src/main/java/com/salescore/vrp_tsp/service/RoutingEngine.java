@@ -0,0 +1,243 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.GraphHopperConfig;
+import com.graphhopper.config.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Swappable holder of one GraphHopper instance. A replaced graph keeps serving the leases already taken on it and is
+// closed, its directory removed, after the last one is released. The active directory is kept in <location>.current.
+public class RoutingEngine {
+    private static final Logger log = LoggerFactory.getLogger(RoutingEngine.class);
+
+    private final String name;
+    private final String graphLocation;
+    private final String osmFile;
+    private final String dataAccess;
+    private final Consumer<GraphHopper> configurer;
+    private final AtomicReference<Graph> current = new AtomicReference<>();
+    private volatile FileTime failedSource; // OSM file version whose import failed last
+
+    // dataAccess is RAM_STORE (graph on the heap) or MMAP (off-heap); configurer runs for every (re)built instance
+    public RoutingEngine(String name, String graphLocation, String osmFile, String dataAccess, Consumer<GraphHopper> configurer) {
+        this.name = name;
+        this.graphLocation = graphLocation;
+        this.osmFile = osmFile;
+        this.dataAccess = dataAccess.toUpperCase(Locale.ROOT);
+        this.configurer = configurer;
+        current.set(load(activeLocation()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOsmFile() {
+        return osmFile;
+    }
+
+    public String getDataAccess() {
+        return dataAccess;
+    }
+
+    public boolean isOnHeap() {
+        return dataAccess.startsWith("RAM");
+    }
+
+    // Bytes of the graph files per profile; files shared by all profiles count as "base"
+    public Map<String, Long> getFootprint() {
+        return current.get().footprint;
+    }
+
+    public Lease acquire() {
+        while (true) {
+            Graph graph = current.get();
+            graph.leases.incrementAndGet();
+            if (current.get() == graph) {
+                return new Lease(graph);
+            }
+            // Swapped in between, release and retry on the new graph
+            graph.release();
+        }
+    }
+
+    // OSM file changed after the current import, and that version has not already failed to import
+    public boolean isStale() {
+        try {
+            FileTime source = Files.getLastModifiedTime(Paths.get(osmFile));
+            return source.compareTo(current.get().importedAt) > 0 && !source.equals(failedSource);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public synchronized void rebuild() {
+        String location = graphLocation + "-" + System.currentTimeMillis();
+        FileTime source = null;
+        Graph graph;
+        try {
+            source = Files.getLastModifiedTime(Paths.get(osmFile));
+            graph = load(location);
+        } catch (IOException | RuntimeException e) {
+            failedSource = source;
+            delete(Paths.get(location));
+            throw new RuntimeException("Error rebuilding GraphHopper " + name + ": " + e.getMessage(), e);
+        }
+        try {
+            Path pointer = pointerFile();
+            Path temporary = Paths.get(pointer + ".tmp");
+            Files.writeString(temporary, location, StandardCharsets.UTF_8);
+            Files.move(temporary, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not record active graph directory of {}: {}", name, e.getMessage());
+        }
+
+        Graph previous = current.getAndSet(graph);
+        log.info("Routing graph {} switched to {} ({})", name, location, graph.version);
+        previous.retire();
+    }
+
+    private Graph load(String location) {
+        GraphHopper hopper = new GraphHopper();
+        try {
+            hopper.init(new GraphHopperConfig()
+                    .putObject("graph.location", location)
+                    .putObject("datareader.file", osmFile)
+                    .putObject("graph.dataaccess.default_type", dataAccess));
+            configurer.accept(hopper);
+            hopper.importOrLoad();
+            FileTime importedAt = Files.getLastModifiedTime(Paths.get(location, "properties"));
+            return new Graph(hopper, location, importedAt, footprint(hopper, location));
+        } catch (Exception e) {
+            // Release the storage files so a failed import can be removed
+            hopper.close();
+            throw new RuntimeException("Error initializing GraphHopper " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void delete(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Could not remove graph directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private String activeLocation() {
+        try {
+            Path pointer = pointerFile();
+            if (Files.exists(pointer)) {
+                String location = Files.readString(pointer, StandardCharsets.UTF_8).trim();
+                if (Files.isDirectory(Paths.get(location))) {
+                    return location;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read active graph directory of {}: {}", name, e.getMessage());
+        }
+        return graphLocation;
+    }
+
+    private Path pointerFile() {
+        return Paths.get(graphLocation + ".current");
+    }
+
+    // GraphHopper suffixes profile-specific storage (CH shortcuts, landmarks, subnetworks) with the profile name
+    private static Map<String, Long> footprint(GraphHopper hopper, String location) throws IOException {
+        List<String> profiles = hopper.getProfiles().stream()
+                .map(Profile::getName)
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toList();
+        Map<String, Long> footprint = new TreeMap<>();
+        try (Stream<Path> files = Files.list(Paths.get(location))) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                String fileName = file.getFileName().toString();
+                String profile = profiles.stream().filter(p -> fileName.endsWith("_" + p)).findFirst().orElse("base");
+                footprint.merge(profile, Files.size(file), Long::sum);
+            }
+        }
+        return footprint;
+    }
+
+    private static final class Graph {
+        private final GraphHopper hopper;
+        private final String location;
+        private final String version;
+        private final FileTime importedAt;
+        private final Map<String, Long> footprint;
+        private final AtomicInteger leases = new AtomicInteger();
+        private volatile boolean retired;
+        private boolean closed;
+
+        private Graph(GraphHopper hopper, String location, FileTime importedAt, Map<String, Long> footprint) {
+            this.hopper = hopper;
+            this.location = location;
+            this.version = Long.toString(importedAt.toMillis(), 36);
+            this.importedAt = importedAt;
+            this.footprint = footprint;
+        }
+
+        private void retire() {
+            retired = true;
+            closeIfUnused();
+        }
+
+        private void release() {
+            leases.decrementAndGet();
+            closeIfUnused();
+        }
+
+        // The lease count can only go up again through acquire(), which re-checks the current graph
+        private synchronized void closeIfUnused() {
+            if (!retired || closed || leases.get() > 0) {
+                return;
+            }
+            closed = true;
+            hopper.close();
+            delete(Paths.get(location));
+        }
+    }
+
+    // A pinned graph, close it when the routing work is done
+    public static final class Lease implements AutoCloseable {
+        private final Graph graph;
+
+        private Lease(Graph graph) {
+            this.graph = graph;
+        }
+
+        public GraphHopper hopper() {
+            return graph.hopper;
+        }
+
+        public String version() {
+            return graph.version;
+        }
+
+        @Override
+        public void close() {
+            graph.release();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.GHRequest;
+import com.graphhopper.GHResponse;
+import com.graphhopper.GraphHopper;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+// Dense distance/duration matrix, row-major (from * size + to); every ordered pair is routed once, rows in parallel
+public class RoutingMatrix implements TravelMatrix {
+    private final int size;
+    private final double[] distances; // meters
+    private final double[] durations; // seconds
+
+    private RoutingMatrix(int size, double[] distances, double[] durations) {
+        this.size = size;
+        this.distances = distances;
+        this.durations = durations;
+    }
+
+    public static RoutingMatrix compute(GraphHopper graphHopper, double[] lat, double[] lon, RouteQuery query, ForkJoinPool pool) {
+        int size = lat.length;
+        double[] distances = new double[size * size];
+        double[] durations = new double[size * size];
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ForkJoinTask<?> task = pool.submit(() -> IntStream.range(0, size).parallel().forEach(from -> {
+            for (int to = 0; to < size; to++) {
+                if (cancelled.get()) {
+                    throw new CancellationException("Routing matrix cancelled");
+                }
+                if (from == to) {
+                    continue;
+                }
+                GHRequest request = query.request(from, to, lat, lon);
+                GHResponse response = graphHopper.route(request);
+
+                if (response.hasErrors()) {
+                    throw new RuntimeException("Error calculating route: " + response.getErrors());
+                }
+
+                distances[from * size + to] = response.getBest().getDistance();
+                durations[from * size + to] = response.getBest().getTime() / 1000.0; // Convert milliseconds to seconds
+            }
+        }));
+
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            // Cancelling the task alone does not stop the parallel stream's subtasks, the flag does
+            cancelled.set(true);
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calculating routing matrix", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Error calculating routing matrix: " + cause.getMessage(), cause);
+        }
+
+        return new RoutingMatrix(size, distances, durations);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    public double[] getDistances() {
+        return distances;
+    }
+
+    public double[] getDurations() {
+        return durations;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        return distances[from * size + to];
+    }
+
+    @Override
+    public double duration(int from, int to) {
+        return durations[from * size + to];
+    }
+
+    @Override
+    public NeighborLists neighbors(int k) {
+        return NeighborLists.of(distances, size, k);
+    }
+}
@@ -0,0 +1,198 @@
+package com.salescore.vrp_tsp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Admission in front of the solvers: small requests get their own lane, large ones take global slots by size.
+// Tenants come from the configured API keys (unknown keys share the default tenant) and are capped on concurrent
+// solves and solver time per minute.
+@Component
+public class SolveAdmission {
+    public static final String DEFAULT_TENANT = "default";
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    private final int globalSlots;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final int smallRequestLocations;
+    private final int locationsPerSlot;
+
+    private final Semaphore largeLane;
+    private final Semaphore smallLane;
+    private final Map<String, String> tenantsByKey = new HashMap<>();
+    private final Map<String, TenantState> tenants = new HashMap<>(); // Fixed at startup, one entry per configured tenant
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Counter rejectedCpuBudget;
+    private volatile double averageSolveSeconds = 1.0;
+
+    public SolveAdmission(MeterRegistry meterRegistry,
+                          @Value("${solve.admission.global-slots:0}") int globalSlots,
+                          @Value("${solve.admission.per-tenant-concurrency:4}") int perTenantConcurrency,
+                          @Value("${solve.admission.max-queue:64}") int maxQueue,
+                          @Value("${solve.admission.max-wait-ms:10000}") long maxWaitMs,
+                          @Value("${solve.admission.small-request-locations:25}") int smallRequestLocations,
+                          @Value("${solve.admission.small-lane-concurrency:16}") int smallLaneConcurrency,
+                          @Value("${solve.admission.locations-per-slot:100}") int locationsPerSlot,
+                          @Value("${solve.admission.tenant-keys:}") List<String> tenantKeys,
+                          @Value("${solve.admission.tenant-cpu-seconds-per-minute:0}") double tenantCpuSecondsPerMinute) {
+        this.globalSlots = globalSlots > 0 ? globalSlots : Runtime.getRuntime().availableProcessors();
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.smallRequestLocations = smallRequestLocations;
+        this.locationsPerSlot = Math.max(1, locationsPerSlot);
+        this.largeLane = new Semaphore(this.globalSlots, true);
+        this.smallLane = new Semaphore(smallLaneConcurrency, true);
+
+        // Entries are tenant:key
+        tenants.put(DEFAULT_TENANT, new TenantState(perTenantConcurrency, tenantCpuSecondsPerMinute));
+        for (String entry : tenantKeys) {
+            int colon = entry.indexOf(':');
+            if (colon <= 0 || colon == entry.length() - 1) {
+                throw new IllegalArgumentException("Invalid solve.admission.tenant-keys entry, use tenant:key");
+            }
+            String tenant = entry.substring(0, colon).trim();
+            tenantsByKey.put(entry.substring(colon + 1).trim(), tenant);
+            tenants.computeIfAbsent(tenant, t -> new TenantState(perTenantConcurrency, tenantCpuSecondsPerMinute));
+        }
+
+        Gauge.builder("solve.admission.queue.depth", queued, AtomicInteger::get)
+                .description("Solve requests waiting for admission")
+                .register(meterRegistry);
+        Gauge.builder("solve.admission.slots.used", largeLane, lane -> this.globalSlots - lane.availablePermits())
+                .tag("lane", "large")
+                .register(meterRegistry);
+        Gauge.builder("solve.admission.slots.used", smallLane, lane -> smallLaneConcurrency - lane.availablePermits())
+                .tag("lane", "small")
+                .register(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("solve.admission.rejected").tag("reason", "queue_full").register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("solve.admission.rejected").tag("reason", "timeout").register(meterRegistry);
+        this.rejectedCpuBudget = Counter.builder("solve.admission.rejected").tag("reason", "cpu_budget").register(meterRegistry);
+    }
+
+    // Tenant of an API key; unknown or missing keys fall back to the default tenant
+    public String tenant(String apiKey) {
+        return apiKey != null ? tenantsByKey.getOrDefault(apiKey, DEFAULT_TENANT) : DEFAULT_TENANT;
+    }
+
+    public <T> T run(String tenant, int locations, Supplier<T> solve) {
+        TenantState tenantState = tenants.getOrDefault(tenant, tenants.get(DEFAULT_TENANT));
+        long budgetWait = tenantState.secondsUntilBudget();
+        if (budgetWait > 0) {
+            rejectedCpuBudget.increment();
+            throw new AdmissionRejectedException("Solver time budget of tenant " + tenant + " used up, retry later.", budgetWait);
+        }
+        boolean small = locations <= smallRequestLocations;
+        Semaphore lane = small ? smallLane : largeLane;
+        int weight = small ? 1 : Math.min(globalSlots, 1 + locations / locationsPerSlot);
+
+        // Claim a queue place atomically, a separate check and increment would let bursts overshoot max-queue
+        if (queued.getAndUpdate(depth -> depth < maxQueue ? depth + 1 : depth) >= maxQueue) {
+            rejectedQueueFull.increment();
+            throw new AdmissionRejectedException("Solver queue is full, retry later.", retryAfterSeconds());
+        }
+
+        Semaphore tenantSemaphore = tenantState.permits;
+        long deadline = System.nanoTime() + maxWaitNanos;
+        boolean tenantAcquired = false;
+        boolean laneAcquired = false;
+
+        try {
+            tenantAcquired = tenantSemaphore.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (tenantAcquired) {
+                laneAcquired = lane.tryAcquire(weight, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            if (tenantAcquired) {
+                tenantSemaphore.release();
+            }
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Solve cancelled by caller");
+        } finally {
+            queued.decrementAndGet();
+        }
+
+        try {
+            if (!laneAcquired) {
+                rejectedTimeout.increment();
+                throw new AdmissionRejectedException(tenantAcquired
+                        ? "Solver capacity exhausted, retry later."
+                        : "Too many concurrent solves for tenant " + tenant + ", retry later.", retryAfterSeconds());
+            }
+
+            long started = System.nanoTime();
+            try {
+                return solve.get();
+            } finally {
+                lane.release(weight);
+                // Exponentially weighted average feeds the Retry-After estimate
+                double seconds = (System.nanoTime() - started) / 1e9;
+                averageSolveSeconds = 0.8 * averageSolveSeconds + 0.2 * seconds;
+                // Solver time is estimated as slots held times wall time, the solve runs on pool threads
+                tenantState.charge(weight * seconds);
+            }
+        } finally {
+            if (tenantAcquired) {
+                tenantSemaphore.release();
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return queued.get();
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(averageSolveSeconds * (queued.get() + 1) / globalSlots));
+    }
+
+    // Token bucket of solver seconds, refilled at cpuSecondsPerMinute; a solve may overdraw it, the next waits it off
+    private static final class TenantState {
+        private final Semaphore permits;
+        private final double capacity;
+        private final double refillPerNano;
+        private double available;
+        private long refilledAt = System.nanoTime();
+
+        private TenantState(int concurrency, double cpuSecondsPerMinute) {
+            this.permits = new Semaphore(concurrency, true);
+            this.capacity = cpuSecondsPerMinute;
+            this.refillPerNano = cpuSecondsPerMinute / TimeUnit.MINUTES.toNanos(1);
+            this.available = cpuSecondsPerMinute;
+        }
+
+        synchronized long secondsUntilBudget() {
+            if (capacity <= 0) {
+                return 0;
+            }
+            refill();
+            return available >= 0 ? 0 : Math.max(1, (long) Math.ceil(-available / refillPerNano / 1e9));
+        }
+
+        synchronized void charge(double seconds) {
+            if (capacity > 0) {
+                refill();
+                available -= seconds;
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            available = Math.min(capacity, available + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
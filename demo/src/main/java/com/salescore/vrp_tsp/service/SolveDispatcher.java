@@ -0,0 +1,147 @@
+package com.salescore.vrp_tsp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends each solve job to the least loaded healthy worker. An unavailable worker leaves the rotation until its health
+// check passes and the job moves on, up to max-attempts; a busy one stays in rotation. Timed-out jobs are not retried.
+@Component
+public class SolveDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(SolveDispatcher.class);
+
+    private final List<WorkerState> workers = new ArrayList<>();
+    private final int maxAttempts;
+    private final Counter redispatched;
+    private final ScheduledExecutorService healthChecker;
+
+    @Autowired
+    public SolveDispatcher(LocalSolveWorker localWorker, MeterRegistry meterRegistry,
+                           @Value("${solve.workers.urls:}") List<String> workerUrls,
+                           @Value("${solve.workers.local-enabled:true}") boolean localEnabled,
+                           @Value("${solve.workers.slots-per-worker:4}") int slotsPerWorker,
+                           @Value("${solve.workers.max-attempts:3}") int maxAttempts,
+                           @Value("${solve.workers.health-interval-seconds:5}") long healthIntervalSeconds,
+                           @Value("${solve.workers.request-timeout-seconds:600}") long requestTimeoutSeconds,
+                           @Value("${solve.workers.secret:}") String secret) {
+        this(workers(localWorker, workerUrls, localEnabled, slotsPerWorker, Duration.ofSeconds(requestTimeoutSeconds), secret),
+                meterRegistry, maxAttempts, healthIntervalSeconds);
+    }
+
+    SolveDispatcher(List<SolveWorker> workers, MeterRegistry meterRegistry, int maxAttempts, long healthIntervalSeconds) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        workers.forEach(worker -> this.workers.add(new WorkerState(worker)));
+
+        Gauge.builder("solve.workers.healthy", this.workers, list -> list.stream().filter(worker -> worker.healthy).count())
+                .description("Solve workers currently in rotation")
+                .register(meterRegistry);
+        this.redispatched = Counter.builder("solve.workers.redispatched").register(meterRegistry);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solve-worker-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (workers.size() > 1 && healthIntervalSeconds > 0) {
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private static List<SolveWorker> workers(LocalSolveWorker localWorker, List<String> workerUrls, boolean localEnabled,
+                                             int slotsPerWorker, Duration requestTimeout, String secret) {
+        List<SolveWorker> workers = new ArrayList<>();
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (String url : workerUrls) {
+            if (!url.isBlank()) {
+                workers.add(new RemoteSolveWorker(url.trim(), slotsPerWorker, requestTimeout, secret, httpClient));
+            }
+        }
+        if (localEnabled || workers.isEmpty()) {
+            workers.add(localWorker);
+        }
+        return workers;
+    }
+
+    public String solve(SolveKind kind, Object request) {
+        Set<WorkerState> tried = new HashSet<>();
+        WorkerUnavailableException lastFailure = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            WorkerState worker = pick(tried);
+            if (worker == null) {
+                break;
+            }
+            if (attempt > 0) {
+                redispatched.increment();
+            }
+            worker.inFlight.incrementAndGet();
+            try {
+                return worker.worker.solve(kind, request);
+            } catch (WorkerBusyException e) {
+                // Out of slots or memory, not down: keep it in rotation and try another worker
+                log.info("Re-dispatching {} job: {}", kind.getPath(), e.getMessage());
+                tried.add(worker);
+                lastFailure = e;
+            } catch (WorkerUnavailableException e) {
+                log.warn("Re-dispatching {} job: {}", kind.getPath(), e.getMessage());
+                worker.healthy = false;
+                tried.add(worker);
+                lastFailure = e;
+            } finally {
+                worker.inFlight.decrementAndGet();
+            }
+        }
+        throw new AdmissionRejectedException("No solve worker available"
+                + (lastFailure != null ? ": " + lastFailure.getMessage() : ""), 5);
+    }
+
+    // Least loaded healthy worker relative to its capacity, ties go to the first configured
+    private WorkerState pick(Set<WorkerState> excluded) {
+        return workers.stream()
+                .filter(worker -> worker.healthy && !excluded.contains(worker))
+                .min(Comparator.comparingDouble(worker -> (double) worker.inFlight.get() / Math.max(1, worker.worker.getCapacity())))
+                .orElse(null);
+    }
+
+    private void checkHealth() {
+        for (WorkerState worker : workers) {
+            boolean healthy = worker.worker.checkHealth();
+            if (healthy != worker.healthy) {
+                log.info("Solve worker {} is {}", worker.worker.getId(), healthy ? "back in rotation" : "unhealthy");
+            }
+            worker.healthy = healthy;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecker.shutdownNow();
+    }
+
+    private static final class WorkerState {
+        private final SolveWorker worker;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        private WorkerState(SolveWorker worker) {
+            this.worker = worker;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.salescore.vrp_tsp.service;
+
+// Solve jobs a worker accepts, with their path segment on the worker endpoint
+public enum SolveKind {
+    VRP("vrp"),
+    TSP_DISTANCE("tsp-distance"),
+    TSP_DURATION("tsp-duration");
+
+    private final String path;
+
+    SolveKind(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
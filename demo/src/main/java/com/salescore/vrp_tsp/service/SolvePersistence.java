@@ -0,0 +1,336 @@
+package com.salescore.vrp_tsp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Asynchronous, batched persistence of plans, routes and matrix rows. Enqueueing never blocks, a full queue drops
+// and counts the record; one writer drains it in JDBC batches and retries with backoff while the database is down.
+// Plans not yet written are served from memory.
+@Component
+public class SolvePersistence {
+    private static final Logger log = LoggerFactory.getLogger(SolvePersistence.class);
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BlockingQueue<Object> queue;
+    private final Map<UUID, PlanRecord> pendingPlans = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int matrixMaxLocations;
+    private final long matrixQueueMaxBytes;
+    private final AtomicLong queuedMatrixBytes = new AtomicLong();
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private boolean schemaApplied;
+
+    public SolvePersistence(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                            @Value("${persistence.enabled:true}") boolean enabled,
+                            @Value("${persistence.queue-capacity:10000}") int queueCapacity,
+                            @Value("${persistence.batch-size:500}") int batchSize,
+                            @Value("${persistence.flush-interval-ms:200}") long flushIntervalMs,
+                            @Value("${persistence.matrix-max-locations:500}") int matrixMaxLocations,
+                            @Value("${persistence.matrix-queue-max-bytes:67108864}") long matrixQueueMaxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.matrixMaxLocations = matrixMaxLocations;
+        this.matrixQueueMaxBytes = matrixQueueMaxBytes;
+        this.dropped = Counter.builder("persistence.records.dropped").register(meterRegistry);
+        Gauge.builder("persistence.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("persistence.queue.matrix.bytes", queuedMatrixBytes, AtomicLong::get)
+                .description("Size of the routing matrices waiting to be written")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::drain, "solve-persistence");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    public UUID recordPlan(String kind, String fingerprint, Object request, String response) {
+        UUID id = UUID.randomUUID();
+        if (!enabled) {
+            return id;
+        }
+        PlanRecord plan = new PlanRecord(id, kind, fingerprint, request, response, Instant.now());
+        pendingPlans.put(id, plan);
+        if (!queue.offer(plan)) {
+            pendingPlans.remove(id);
+            dropped.increment();
+        }
+        return id;
+    }
+
+    // Rows are keyed by profile, graph version and coordinates, so identical location sets on one graph share them;
+    // the matrix is held until written, so it is dropped when the queued matrices would exceed their byte budget
+    public void recordMatrix(String profile, String graphVersion, ProblemIndex index, TravelMatrix matrix) {
+        if (!enabled || index.getSize() > matrixMaxLocations) {
+            return;
+        }
+        MatrixRecord record = new MatrixRecord(profile, graphVersion, index.getLat(), index.getLon(), matrix, Instant.now());
+        if (queuedMatrixBytes.addAndGet(record.bytes()) > matrixQueueMaxBytes || !queue.offer(record)) {
+            queuedMatrixBytes.addAndGet(-record.bytes());
+            dropped.increment();
+        }
+    }
+
+    public Optional<String> findPlan(UUID id) {
+        PlanRecord pending = pendingPlans.get(id);
+        if (pending != null) {
+            return Optional.of(pending.response());
+        }
+        try {
+            List<String> responses = jdbcTemplate.queryForList("SELECT response::text FROM solve_plan WHERE id = ?", String.class, id);
+            return responses.stream().findFirst();
+        } catch (DataAccessException e) {
+            log.warn("Could not look up plan {}: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void drain() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        long backoffMs = flushIntervalMs;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            if (batch.isEmpty()) {
+                try {
+                    Object first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                } catch (InterruptedException e) {
+                    // Shutdown: flush whatever is still queued
+                    queue.drainTo(batch);
+                }
+            }
+
+            try {
+                applySchema();
+                write(batch);
+                backoffMs = flushIntervalMs;
+            } catch (DataAccessResourceFailureException | TransientDataAccessException e) {
+                if (running) {
+                    // Database unreachable: keep the batch (its plans stay readable from memory) and try it again
+                    log.warn("Persistence database unavailable, retrying {} records in {} ms: {}", batch.size(), backoffMs, e.getMessage());
+                    pause(backoffMs);
+                    backoffMs = Math.min(2 * backoffMs, MAX_RETRY_BACKOFF_MS);
+                    continue;
+                }
+                log.warn("Dropping {} persistence records on shutdown: {}", batch.size(), e.getMessage());
+                dropped.increment(batch.size());
+            } catch (RuntimeException e) {
+                // Rejected by the database itself: write record by record so only the rejected ones are dropped
+                log.warn("Writing {} persistence records one by one after a rejected batch: {}", batch.size(), e.getMessage());
+                for (Object record : batch) {
+                    try {
+                        write(List.of(record));
+                    } catch (RuntimeException rejected) {
+                        log.warn("Dropping persistence record: {}", rejected.getMessage());
+                        dropped.increment();
+                    }
+                }
+            }
+            for (Object record : batch) {
+                if (record instanceof PlanRecord plan) {
+                    pendingPlans.remove(plan.id());
+                } else if (record instanceof MatrixRecord matrix) {
+                    queuedMatrixBytes.addAndGet(-matrix.bytes());
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // Creates the tables on the first write that reaches the database, so startup never depends on it
+    private void applySchema() {
+        if (schemaApplied) {
+            return;
+        }
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(true, true, null, new ClassPathResource("schema.sql"));
+        jdbcTemplate.execute((ConnectionCallback<Object>) connection -> {
+            schema.populate(connection);
+            return null;
+        });
+        schemaApplied = true;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Shutdown: the next attempt is the last one
+        }
+    }
+
+    private void write(List<Object> batch) {
+        List<Object[]> plans = new ArrayList<>();
+        List<Object[]> routes = new ArrayList<>();
+        List<MatrixRecord> matrices = new ArrayList<>();
+
+        for (Object record : batch) {
+            if (record instanceof PlanRecord plan) {
+                plans.add(new Object[]{plan.id(), plan.kind(), plan.fingerprint(), toJson(plan.request()), plan.response(),
+                        Timestamp.from(plan.createdAt())});
+                routes.addAll(routeRows(plan));
+            } else if (record instanceof MatrixRecord matrix) {
+                matrices.add(matrix);
+            }
+        }
+
+        if (!plans.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO solve_plan (id, kind, fingerprint, request, response, created_at) "
+                    + "VALUES (?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), ?) ON CONFLICT (id) DO NOTHING", plans);
+        }
+        if (!routes.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO solve_route (plan_id, route_index, vehicle_id, trip, distance, duration, activity_ids) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, CAST(? AS text[])) ON CONFLICT DO NOTHING", routes);
+        }
+        for (MatrixRecord matrix : matrices) {
+            writeMatrix(matrix);
+        }
+    }
+
+    private void writeMatrix(MatrixRecord record) {
+        TravelMatrix matrix = record.matrix();
+        int size = matrix.getSize();
+        String key = matrixKey(record);
+        jdbcTemplate.execute((Connection connection) -> {
+            try (var statement = connection.prepareStatement("INSERT INTO routing_matrix_row "
+                    + "(matrix_key, profile, from_index, lat, lon, distances, durations, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING")) {
+                for (int from = 0; from < size; from++) {
+                    Double[] distances = new Double[size];
+                    Double[] durations = new Double[size];
+                    for (int to = 0; to < size; to++) {
+                        distances[to] = matrix.distance(from, to);
+                        durations[to] = matrix.duration(from, to);
+                    }
+                    Array distanceArray = connection.createArrayOf("float8", distances);
+                    Array durationArray = connection.createArrayOf("float8", durations);
+                    statement.setString(1, key);
+                    statement.setString(2, record.profile());
+                    statement.setInt(3, from);
+                    statement.setDouble(4, record.lat()[from]);
+                    statement.setDouble(5, record.lon()[from]);
+                    statement.setArray(6, distanceArray);
+                    statement.setArray(7, durationArray);
+                    statement.setTimestamp(8, Timestamp.from(record.createdAt()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    // One row per route, parsed from the response JSON here so the request path never pays for it
+    private List<Object[]> routeRows(PlanRecord plan) {
+        List<Object[]> rows = new ArrayList<>();
+        try {
+            JsonNode routes = mapper.readTree(plan.response()).path("solution").path("routes");
+            for (int r = 0; r < routes.size(); r++) {
+                JsonNode route = routes.get(r);
+                List<String> activityIds = new ArrayList<>();
+                route.path("activities").forEach(activity -> activityIds.add(activity.path("id").asText()));
+                String vehicleId = route.has("vehicleId") ? route.path("vehicleId").asText() : route.path("vehicle_id").asText();
+                rows.add(new Object[]{plan.id(), r, vehicleId, route.path("trip").asInt(1), route.path("distance").asDouble(),
+                        route.path("duration").asDouble(), toPgArray(activityIds)});
+            }
+        } catch (Exception e) {
+            log.warn("Could not extract routes of plan {}: {}", plan.id(), e.getMessage());
+        }
+        return rows;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new RuntimeException("Error serializing request for persistence: " + e.getMessage(), e);
+        }
+    }
+
+    private static String toPgArray(List<String> values) {
+        StringBuilder array = new StringBuilder("{");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                array.append(',');
+            }
+            array.append('"').append(values.get(i).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return array.append('}').toString();
+    }
+
+    private static String matrixKey(MatrixRecord record) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((record.profile() + "@" + record.graphVersion() + ";").getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < record.lat().length; i++) {
+                digest.update((record.lat()[i] + "," + record.lon()[i] + ";").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record PlanRecord(UUID id, String kind, String fingerprint, Object request, String response, Instant createdAt) {
+    }
+
+    private record MatrixRecord(String profile, String graphVersion, double[] lat, double[] lon, TravelMatrix matrix, Instant createdAt) {
+        // Distances and durations, 8 bytes each
+        long bytes() {
+            return 16L * matrix.getSize() * matrix.getSize();
+        }
+    }
+}
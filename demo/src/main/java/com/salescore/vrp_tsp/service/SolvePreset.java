@@ -0,0 +1,101 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+
+import java.util.Locale;
+import java.util.Map;
+
+// Quality/latency trade-offs for both endpoints; null settings keep the configured defaults, so BALANCED is the same
+// as no preset. Explicit request settings win over the preset.
+public enum SolvePreset {
+    // Interactive callers: one greedy tour with 2-opt, jsprit with cheap best insertion on one thread
+    FAST(false, false, null, 200L, 8,
+            Jsprit.Construction.BEST_INSERTION, 1, 200, 1_000L,
+            Map.of(Jsprit.Strategy.RADIAL_BEST, 0.5, Jsprit.Strategy.RANDOM_BEST, 0.5, Jsprit.Strategy.WORST_BEST, 0.2,
+                    Jsprit.Strategy.RADIAL_REGRET, 0.0, Jsprit.Strategy.RANDOM_REGRET, 0.0, Jsprit.Strategy.WORST_REGRET, 0.0,
+                    Jsprit.Strategy.CLUSTER_REGRET, 0.0, Jsprit.Strategy.STRING_REGRET, 0.0)),
+    BALANCED(true, true, null, null, null,
+            null, null, null, null, Map.of()),
+    // Batch planning: many randomized starts with Or-opt, jsprit with regret insertion on several threads
+    THOROUGH(true, true, 16, 10_000L, 32,
+            Jsprit.Construction.REGRET_INSERTION, 4, 10_000, 60_000L,
+            Map.of(Jsprit.Strategy.RADIAL_REGRET, 1.0, Jsprit.Strategy.RANDOM_REGRET, 0.5, Jsprit.Strategy.WORST_REGRET, 1.0,
+                    Jsprit.Strategy.CLUSTER_REGRET, 1.0, Jsprit.Strategy.STRING_REGRET, 1.0));
+
+    private final boolean randomizedConstruction; // false: the single greedy nearest-neighbour tour
+    private final boolean orOpt;                  // false: 2-opt only
+    private final Integer tspStartsPerThread;
+    private final Long tspTimeLimitMs;
+    private final Integer tspNeighbors;
+    private final Jsprit.Construction vrpConstruction;
+    private final Integer vrpThreads;
+    private final Integer vrpIterations;
+    private final Long vrpTimeLimitMs;
+    private final Map<Jsprit.Strategy, Double> vrpStrategyWeights;
+
+    SolvePreset(boolean randomizedConstruction, boolean orOpt, Integer tspStartsPerThread, Long tspTimeLimitMs,
+                Integer tspNeighbors, Jsprit.Construction vrpConstruction, Integer vrpThreads, Integer vrpIterations,
+                Long vrpTimeLimitMs, Map<Jsprit.Strategy, Double> vrpStrategyWeights) {
+        this.randomizedConstruction = randomizedConstruction;
+        this.orOpt = orOpt;
+        this.tspStartsPerThread = tspStartsPerThread;
+        this.tspTimeLimitMs = tspTimeLimitMs;
+        this.tspNeighbors = tspNeighbors;
+        this.vrpConstruction = vrpConstruction;
+        this.vrpThreads = vrpThreads;
+        this.vrpIterations = vrpIterations;
+        this.vrpTimeLimitMs = vrpTimeLimitMs;
+        this.vrpStrategyWeights = vrpStrategyWeights;
+    }
+
+    public static SolvePreset of(String name, String fallback) {
+        String preset = name != null ? name : fallback;
+        try {
+            return valueOf(preset.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid preset '" + preset + "'. Use 'fast', 'balanced' or 'thorough'.", e);
+        }
+    }
+
+    public void configure(Jsprit.Builder builder) {
+        if (vrpConstruction != null) {
+            builder.setProperty(Jsprit.Parameter.CONSTRUCTION, vrpConstruction.toString());
+        }
+        if (vrpThreads != null) {
+            builder.setProperty(Jsprit.Parameter.THREADS, String.valueOf(vrpThreads));
+        }
+        vrpStrategyWeights.forEach((strategy, weight) -> builder.setProperty(strategy, String.valueOf(weight)));
+    }
+
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isRandomizedConstruction() {
+        return randomizedConstruction;
+    }
+
+    public boolean isOrOpt() {
+        return orOpt;
+    }
+
+    public Integer getTspStartsPerThread() {
+        return tspStartsPerThread;
+    }
+
+    public Long getTspTimeLimitMs() {
+        return tspTimeLimitMs;
+    }
+
+    public Integer getTspNeighbors() {
+        return tspNeighbors;
+    }
+
+    public Integer getVrpIterations() {
+        return vrpIterations;
+    }
+
+    public Long getVrpTimeLimitMs() {
+        return vrpTimeLimitMs;
+    }
+}
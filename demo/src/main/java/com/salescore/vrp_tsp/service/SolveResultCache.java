@@ -0,0 +1,204 @@
+package com.salescore.vrp_tsp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Single-flight deduplication plus a TTL cache of solve results, bounded by entries and estimated heap bytes.
+// The shared computation runs on its own virtual thread, so a cancelled caller only stops waiting; it is cancelled
+// once every caller has given up. Failures are not cached.
+@Component
+public class SolveResultCache {
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService flights = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, CachedResult> results;
+    private static final long ENTRY_OVERHEAD_BYTES = 128; // Map entry, record and string headers
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private long bytes;
+    private long generation; // Bumped by invalidateAll, results computed before that are not stored
+
+    public SolveResultCache(@Value("${solve.cache.max-entries:1000}") int maxEntries,
+                            @Value("${solve.cache.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${solve.cache.max-bytes:0}") long maxBytes,
+                            @Value("${solve.cache.heap-fraction:0.05}") double heapFraction) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes > 0 ? maxBytes : (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+        // Access-ordered LinkedHashMap gives LRU eviction, see store
+        this.results = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public SolvedPlan getOrCompute(String fingerprint, Supplier<SolvedPlan> solver) {
+        SolvedPlan cached = lookup(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Join the running computation unless every caller of it has already given up
+        Flight created = new Flight();
+        Flight flight = inFlight.compute(fingerprint, (key, existing) -> existing != null && existing.join() ? existing : created);
+        if (flight == created) {
+            created.start(flights.submit(() -> compute(fingerprint, created, solver)));
+        }
+        return await(fingerprint, flight);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public synchronized long estimatedBytes() {
+
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        results.clear();
+        bytes = 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flights.shutdownNow();
+    }
+
+    private void compute(String fingerprint, Flight flight, Supplier<SolvedPlan> solver) {
+        SolvedPlan result = null;
+        Throwable failure = null;
+        try {
+            // Another caller may have finished between the lookup and claiming the in-flight slot
+            result = lookup(fingerprint);
+            if (result == null) {
+                long startGeneration = generation();
+                result = solver.get();
+                store(fingerprint, result, startGeneration);
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+        // Leave the in-flight map before waking the callers; later duplicates find the cached result
+        inFlight.remove(fingerprint, flight);
+        if (failure != null) {
+            flight.result.completeExceptionally(failure);
+        } else {
+            flight.result.complete(result);
+        }
+    }
+
+    private SolvedPlan await(String fingerprint, Flight flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            if (flight.leave()) {
+                inFlight.remove(fingerprint, flight);
+            }
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Solve cancelled by caller");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException("Error running solve: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private synchronized SolvedPlan lookup(String fingerprint) {
+        CachedResult cached = results.get(fingerprint);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.storedAt() > ttlNanos) {
+            results.remove(fingerprint);
+            bytes -= cached.bytes();
+            return null;
+        }
+        return cached.value();
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void store(String fingerprint, SolvedPlan value, long startGeneration) {
+        if (startGeneration != generation) {
+            return;
+        }
+        // Strings may hold two bytes per char (non-Latin-1 location names)
+        CachedResult result = new CachedResult(value, System.nanoTime(), 2L * (fingerprint.length() + value.response().length()) + ENTRY_OVERHEAD_BYTES);
+        CachedResult previous = results.put(fingerprint, result);
+        bytes += result.bytes() - (previous != null ? previous.bytes() : 0);
+
+        // Evict least recently used entries until both bounds hold; a single oversized result is not kept
+        Iterator<CachedResult> eldest = results.values().iterator();
+        while ((results.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    private record CachedResult(SolvedPlan value, long storedAt, long bytes) {
+    }
+
+    // One shared computation and the number of callers still waiting for it
+    private static final class Flight {
+        private final CompletableFuture<SolvedPlan> result = new CompletableFuture<>();
+        private Future<?> task;
+        private int waiters = 1;
+        private boolean abandoned;
+
+        synchronized void start(Future<?> task) {
+            this.task = task;
+            if (abandoned) {
+                task.cancel(true);
+            }
+        }
+
+        synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        // Returns true if this was the last waiter and the computation was cancelled
+        synchronized boolean leave() {
+            if (--waiters > 0 || result.isDone()) {
+                return false;
+            }
+            abandoned = true;
+            if (task != null) {
+                task.cancel(true);
+            }
+            return true;
+        }
+    }
+}
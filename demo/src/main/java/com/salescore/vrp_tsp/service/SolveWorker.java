@@ -0,0 +1,16 @@
+package com.salescore.vrp_tsp.service;
+
+// This JVM or a worker node, as seen by the dispatcher
+public interface SolveWorker {
+
+    String getId();
+
+    // Concurrent solves, used to spread jobs by load
+    int getCapacity();
+
+    // Throws WorkerUnavailableException when the job may be re-dispatched, WorkerBusyException if the worker is up but full
+    String solve
+(SolveKind kind, Object request);
+
+    boolean checkHealth();
+}
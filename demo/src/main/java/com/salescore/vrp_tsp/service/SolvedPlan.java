@@ -0,0 +1,7 @@
+package com.salescore.vrp_tsp.service;
+
+import java.util.UUID;
+
+// Solve response together with the id it is stored under, so cache hits answer with the plan id of the original solve
+public record SolvedPlan(UUID planId, String response) {
+}
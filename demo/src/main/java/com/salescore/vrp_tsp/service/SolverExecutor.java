@@ -0,0 +1,70 @@
+package com.salescore.vrp_tsp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Platform thread pools for CPU-bound solves; virtual request threads park on them, an interrupt cancels the solve.
+// Small requests get their own pool so they never queue behind long jsprit runs.
+@Component
+public class SolverExecutor {
+    private final ExecutorService executor;
+    private final ExecutorService smallExecutor;
+    private final int threads;
+    private final int smallRequestLocations;
+
+    public SolverExecutor(@Value("${solve.executor.threads:0}") int threads,
+                          @Value("${solve.admission.small-request-locations:25}") int smallRequestLocations,
+                          @Value("${solve.admission.small-lane-concurrency:16}") int smallLaneConcurrency) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.threads = poolSize;
+        this.smallRequestLocations = smallRequestLocations;
+        this.executor = Executors.newFixedThreadPool(poolSize, threadFactory("solver-"));
+        this.smallExecutor = Executors.newFixedThreadPool(Math.max(1, smallLaneConcurrency), threadFactory("solver-small-"));
+    }
+
+    public <T> T call(int locations, Supplier<T> solve) {
+        ExecutorService pool = locations <= smallRequestLocations ? smallExecutor : executor;
+        Future<T> future = pool.submit(solve::get);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Solve cancelled by caller");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Error running solver: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        smallExecutor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,426 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.GHResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Off-heap matrix for location sets too large to route densely. Locations are sorted along a Z-order curve and cut
+// into square tiles; depot rows and columns are dense strips. Tiles near each location are routed up front, any other
+// on first read. Values are ints: decimeters and tenths of a second. Holds its graph lease until closed.
+public class TiledRoutingMatrix implements TravelMatrix {
+    private static final Logger log = LoggerFactory.getLogger(TiledRoutingMatrix.class);
+
+    private static final double DISTANCE_SCALE = 10; // Decimeters
+    private static final double DURATION_SCALE = 10; // Tenths of a second
+    private static final int PAIR_BYTES = 8;          // Distance and duration int
+    private static final int NOT_ROUTED = -1;
+    private static final double DETOUR_FACTOR = 1.3;  // Road over air distance, for estimates only
+    private static final double ESTIMATE_SPEED = 11.1; // Meters per second (40 km/h), for estimates only
+    private static final double EARTH_RADIUS = 6_371_000;
+    private static final AtomicLong OFF_HEAP_BYTES = new AtomicLong();
+    // Direct and mapped buffers are only freed once collected, so that is when they leave the count
+    private static final Cleaner BUFFER_CLEANER = Cleaner.create();
+
+    public enum Storage {
+        DIRECT, // Direct buffers, counted against -XX:MaxDirectMemorySize
+        MMAP    // Sparse temporary file mapped into memory, paged by the OS
+    }
+
+    private final RoutingEngine.Lease lease;
+    private final double[] lat;
+    private final double[] lon;
+    private final RouteQuery query;
+    private final ForkJoinPool pool;
+    private final int size;
+    private final int depotCount;
+    private final int tileSize;
+    private final int tilesPerSide;
+    private final int tileBytes;
+    private final int[] position;   // location index -> position along the curve
+    private final int[] locationAt; // position along the curve -> location index
+    private final int[][] candidates;
+    private final AtomicReferenceArray<ByteBuffer> tiles;
+    private final AtomicReferenceArray<CompletableFuture<ByteBuffer>> routing; // Tiles being routed on demand
+    private final Path file;           // MMAP only
+    private final FileChannel channel; // MMAP only
+    private ByteBuffer strips;         // Depot rows, then depot columns
+    private boolean closed;
+
+    private TiledRoutingMatrix(RoutingEngine.Lease lease, double[] lat, double[] lon, RouteQuery query, ForkJoinPool pool,
+                               int depotCount, int tileSize, Storage storage, int candidateCount) throws IOException {
+        this.lease = lease;
+        this.lat = lat;
+        this.lon = lon;
+        this.query = query;
+        this.pool = pool;
+        this.size = lat.length;
+        this.depotCount = depotCount;
+        this.tileSize = tileSize;
+        this.tilesPerSide = (size + tileSize - 1) / tileSize;
+        this.tileBytes = Math.toIntExact((long) tileSize * tileSize * PAIR_BYTES);
+        this.tiles = new AtomicReferenceArray<>(tilesPerSide * tilesPerSide);
+        this.routing = new AtomicReferenceArray<>(tiles.length());
+
+        this.locationAt = curveOrder(lat, lon);
+        this.position = new int[size];
+        for (int p = 0; p < size; p++) {
+            position[locationAt[p]] = p;
+        }
+
+        if (storage == Storage.MMAP) {
+            this.file = Files.createTempFile("routing-matrix-", ".tiles");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        } else {
+            this.file = null;
+            this.channel = null;
+        }
+
+        int[][] nearest = new int[size][];
+        int width = Math.min(candidateCount, size - 1);
+        onPool(() -> IntStream.range(0, size).parallel().forEach(from -> nearest[from] = nearestByAir(from, width)));
+        this.candidates = nearest;
+    }
+
+    // The first depotCount indices are vehicle starts; candidateCount is the nearest-by-air count routed up front
+    public static TiledRoutingMatrix compute(RoutingEngine.Lease lease, double[] lat, double[] lon, RouteQuery query,
+                                             ForkJoinPool pool, int depotCount, int tileSize, Storage storage, int candidateCount) {
+        TiledRoutingMatrix matrix;
+        try {
+            matrix = new TiledRoutingMatrix(lease, lat, lon, query, pool, depotCount, tileSize, storage, candidateCount);
+        } catch (IOException | RuntimeException e) {
+            lease.close();
+            throw new RuntimeException("Error allocating routing matrix tiles: " + e.getMessage(), e);
+        }
+        try {
+            matrix.routeStrips();
+            matrix.routeNeighborTiles();
+        } catch (RuntimeException e) {
+            matrix.close();
+            throw e;
+        }
+        return matrix;
+    }
+
+    public static Storage storage(String name) {
+        try {
+            return Storage.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid matrix storage '" + name + "'. Use 'direct' or 'mmap'.", e);
+        }
+    }
+
+    // Includes closed matrices whose buffers are not yet garbage collected
+    public static long offHeapBytes() {
+        return OFF_HEAP_BYTES.get();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        return read(from, to, 0, true) / DISTANCE_SCALE;
+    }
+
+    @Override
+    public double duration(int from, int to) {
+        return read(from, to, 4, true) / DURATION_SCALE;
+    }
+
+    // Air-distance estimate unless the pair is already routed; never routes
+    public double estimatedDistance(int from, int to) {
+        int value = read(from, to, 0, false);
+        return value != NOT_ROUTED ? value / DISTANCE_SCALE : airDistance(from, to) * DETOUR_FACTOR;
+    }
+
+    public double estimatedDuration(int from, int to) {
+        int value = read(from, to, 4, false);
+        return value != NOT_ROUTED ? value / DURATION_SCALE : airDistance(from, to) * DETOUR_FACTOR / ESTIMATE_SPEED;
+    }
+
+    @Override
+    public NeighborLists neighbors(int k) {
+        return NeighborLists.of(this, candidates, k);
+    }
+
+    public int getRoutedTiles() {
+        int routed = 0;
+        for (int t = 0; t < tiles.length(); t++) {
+            if (tiles.get(t) != null) {
+                routed++;
+            }
+        }
+        return routed;
+    }
+
+    public int getTileCount() {
+        return tiles.length();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Buffers are freed by the garbage collector once unreachable; the mapped file is deleted on close
+        for (int t = 0; t < tiles.length(); t++) {
+            tiles.set(t, null);
+            routing.set(t, null);
+        }
+        strips = null;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not remove matrix tile file {}: {}", file, e.getMessage());
+        } finally {
+            lease.close();
+        }
+    }
+
+    private int read(int from, int to, int field, boolean route) {
+        if (from == to) {
+            return 0;
+        }
+        if (from < depotCount) {
+            return strips.getInt(stripOffset(from, to) + field);
+        }
+        if (to < depotCount) {
+            return strips.getInt(stripOffset(depotCount + to, from) + field);
+        }
+        int row = position[from];
+        int column = position[to];
+        int id = (row / tileSize) * tilesPerSide + column / tileSize;
+        ByteBuffer tile = tiles.get(id);
+        if (tile == null) {
+            if (!route) {
+                return NOT_ROUTED;
+            }
+            tile = tile(id, true);
+        }
+        return tile.getInt(((row % tileSize) * tileSize + column % tileSize) * PAIR_BYTES + field);
+    }
+
+    // Routing happens outside any lock; readers of a tile that is being routed wait for its future only
+    private ByteBuffer tile(int id, boolean parallel) {
+        ByteBuffer tile = tiles.get(id);
+        if (tile != null) {
+            return tile;
+        }
+        CompletableFuture<ByteBuffer> routed = new CompletableFuture<>();
+        CompletableFuture<ByteBuffer> inProgress = routing.compareAndExchange(id, null, routed);
+        if (inProgress != null) {
+            return await(inProgress);
+        }
+        try {
+            tile = routeTile(id, parallel);
+        } catch (RuntimeException e) {
+            // Later reads retry the tile instead of failing on this error forever
+            routing.set(id, null);
+            routed.completeExceptionally(e);
+            throw e;
+        }
+        tiles.set(id, tile);
+        routed.complete(tile);
+        return tile;
+    }
+
+    private static ByteBuffer await(CompletableFuture<ByteBuffer> routed) {
+        try {
+            return routed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calculating routing matrix", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Error calculating routing matrix: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void routeStrips() {
+        strips = allocate(0, 2L * depotCount * size * PAIR_BYTES);
+        onPool(() -> IntStream.range(0, size).parallel().forEach(location -> {
+            for (int depot = 0; depot < depotCount; depot++) {
+                if (depot == location) {
+                    continue;
+                }
+                routePair(strips, stripOffset(depot, location), depot, location);
+                // Pairs between two depots are read from the depot rows only
+                if (location >= depotCount) {
+                    routePair(strips, stripOffset(depotCount + depot, location), location, depot);
+                }
+            }
+        }));
+    }
+
+    // Strip rows are the depot rows, then the depot columns; the strips buffer was sized to fit every offset
+    private int stripOffset(int stripRow, int location) {
+        return (int) (((long) stripRow * size + location) * PAIR_BYTES);
+    }
+
+    private void routeNeighborTiles() {
+        BitSet needed = new BitSet(tiles.length());
+        for (int from = depotCount; from < size; from++) {
+            for (int to : candidates[from]) {
+                if (to >= depotCount) {
+                    needed.set((position[from] / tileSize) * tilesPerSide + position[to] / tileSize);
+                    needed.set((position[to] / tileSize) * tilesPerSide + position[from] / tileSize);
+                }
+            }
+        }
+        // One tile per task, so different tiles are routed in parallel
+        onPool(() -> needed.stream().parallel().forEach(id -> tile(id, false)));
+        log.info("Tiled routing matrix over {} locations: {} of {} tiles of {}x{} routed up front",
+                size, needed.cardinality(), tiles.length(), tileSize, tileSize);
+    }
+
+    private ByteBuffer routeTile(int id, boolean parallel) {
+        ByteBuffer tile = allocate(2L * depotCount * size * PAIR_BYTES + (long) id * tileBytes, tileBytes);
+        int rowStart = (id / tilesPerSide) * tileSize;
+        int columnStart = (id % tilesPerSide) * tileSize;
+        int columnEnd = Math.min(size, columnStart + tileSize);
+        IntConsumer routeRow = row -> {
+            if (locationAt[row] < depotCount) {
+                return;
+            }
+            for (int column = columnStart; column < columnEnd; column++) {
+                // Depot pairs are read from the strips
+                if (locationAt[column] >= depotCount) {
+                    routePair(tile, ((row - rowStart) * tileSize + column - columnStart) * PAIR_BYTES, locationAt[row], locationAt[column]);
+                }
+            }
+        };
+        IntStream rows = IntStream.range(rowStart, Math.min(size, rowStart + tileSize));
+        if (parallel) {
+            onPool(() -> rows.parallel().forEach(routeRow));
+        } else {
+            rows.forEach(routeRow);
+        }
+        return tile;
+    }
+
+    private void routePair(ByteBuffer buffer, int offset, int from, int to) {
+        if (from == to) {
+            return;
+        }
+        GHResponse response = lease.hopper().route(query.request(from, to, lat, lon));
+        if (response.hasErrors()) {
+            throw new RuntimeException("Error calculating route: " + response.getErrors());
+        }
+        buffer.putInt(offset, quantize(response.getBest().getDistance() * DISTANCE_SCALE));
+        buffer.putInt(offset + 4, quantize(response.getBest().getTime() / 1000.0 * DURATION_SCALE));
+    }
+
+    private ByteBuffer allocate(long fileOffset, long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid matrix tiling: " + length + " bytes exceed a single buffer");
+        }
+        int bytes = (int) length;
+        ByteBuffer buffer;
+        try {
+            buffer = channel != null ? channel.map(FileChannel.MapMode.READ_WRITE, fileOffset, bytes) : ByteBuffer.allocateDirect(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Error mapping routing matrix tile: " + e.getMessage(), e);
+        }
+        OFF_HEAP_BYTES.addAndGet(bytes);
+        BUFFER_CLEANER.register(buffer, () -> OFF_HEAP_BYTES.addAndGet(-bytes));
+        return buffer;
+    }
+
+    private void onPool(Runnable work) {
+        try {
+            pool.submit(work).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while calculating routing matrix", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Error calculating routing matrix: " + cause.getMessage(), cause);
+        }
+    }
+
+    // Bounded insertion sort keeps the nearest locations by air
+    private int[] nearestByAir(int from, int width) {
+        int[] nearest = new int[width];
+        double[] best = new double[width];
+        int found = 0;
+        for (int to = 0; to < size; to++) {
+            if (to == from) {
+                continue;
+            }
+            double d = airDistance(from, to);
+            if (found == width && (width == 0 || d >= best[width - 1])) {
+                continue;
+            }
+            int slot = found < width ? found++ : width - 1;
+            while (slot > 0 && best[slot - 1] > d) {
+                best[slot] = best[slot - 1];
+                nearest[slot] = nearest[slot - 1];
+                slot--;
+            }
+            best[slot] = d;
+            nearest[slot] = to;
+        }
+        return nearest;
+    }
+
+    // Equirectangular approximation, accurate enough at city and province scale
+    private double airDistance(int from, int to) {
+        double x = Math.toRadians(lon[to] - lon[from]) * Math.cos(Math.toRadians((lat[from] + lat[to]) / 2));
+        double y = Math.toRadians(lat[to] - lat[from]);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS;
+    }
+
+    // Locations sorted by the Z-order (Morton) key of their coordinates quantized to 16 bits per axis
+    private static int[] curveOrder(double[] lat, double[] lon) {
+        double minLat = Arrays.stream(lat).min().orElse(0);
+        double minLon = Arrays.stream(lon).min().orElse(0);
+        double latSpan = Math.max(1e-9, Arrays.stream(lat).max().orElse(0) - minLat);
+        double lonSpan = Math.max(1e-9, Arrays.stream(lon).max().orElse(0) - minLon);
+
+        long[] keys = new long[lat.length];
+        for (int i = 0; i < lat.length; i++) {
+            int x = (int) ((lon[i] - minLon) / lonSpan * 0xFFFF);
+            int y = (int) ((lat[i] - minLat) / latSpan * 0xFFFF);
+            long morton = 0;
+            for (int bit = 0; bit < 16; bit++) {
+                morton |= (long) (x >> bit & 1) << (2 * bit) | (long) (y >> bit & 1) << (2 * bit + 1);
+            }
+            keys[i] = morton << 32 | i;
+        }
+        Arrays.sort(keys);
+        return Arrays.stream(keys).mapToInt(key -> (int) key).toArray();
+    }
+
+    private static int quantize(double scaled) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(scaled));
+    }
+}
@@ -0,0 +1,51 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.cost.TransportDistance;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+// jsprit costs on a tiled matrix, costed like FastVehicleRoutingTransportCostsMatrix. While estimating, unrouted pairs
+// are answered from air distance: building the algorithm ranks every job pair, which would otherwise route everything.
+final class TiledTransportCosts extends AbstractForwardVehicleRoutingTransportCosts implements TransportDistance {
+    private final TiledRoutingMatrix matrix;
+    private volatile boolean estimating;
+
+    TiledTransportCosts(TiledRoutingMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    void setEstimating(boolean estimating) {
+        this.estimating = estimating;
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        return duration(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
+        return distance(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        double distance = distance(from.getIndex(), to.getIndex());
+        if (vehicle == null) {
+            return distance;
+        }
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+        return costParams.perDistanceUnit * distance + costParams.perTransportTimeUnit * duration(from.getIndex(), to.getIndex());
+    }
+
+    private double distance(int from, int to) {
+        return estimating ? matrix.estimatedDistance(from, to) : matrix.distance(from, to);
+    }
+
+    private double duration(int from, int to) {
+        return estimating ? matrix.estimatedDuration(from, to) : matrix.duration(from, to);
+    }
+}
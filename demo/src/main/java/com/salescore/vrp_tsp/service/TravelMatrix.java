@@ -0,0 +1,18 @@
+package com.salescore.vrp_tsp.service;
+
+// Distances (meters) and durations (seconds) between the locations of a ProblemIndex
+public interface TravelMatrix extends AutoCloseable {
+
+    int getSize();
+
+    double distance(int from, int to);
+
+    double duration(int from, int to);
+
+    NeighborLists neighbors(int k);
+
+    @Override
+
+    default void close() {
+    }
+}
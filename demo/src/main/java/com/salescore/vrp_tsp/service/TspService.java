@@ -0,0 +1,136 @@
+package com.salescore.vrp_tsp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salescore.vrp_tsp.model.TSPSolutionResponse;
+import com.salescore.vrp_tsp.model.TspRequest;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Solve path shared by the TSP endpoints; subclasses pick the graph and whether to search on distance or duration
+public abstract class TspService {
+    private final RoutingEngine routingEngine;
+    private final MultiStartTspSolver tspSolver;
+    private final ForkJoinPool solverPool;
+    private final SolvePersistence persistence;
+    private final String matrixProfile;
+    private final boolean byDuration;
+
+    protected TspService(RoutingEngine routingEngine, GraphReloader graphReloader, MultiStartTspSolver tspSolver,
+                         ForkJoinPool solverPool, SolvePersistence persistence, String matrixProfile, boolean byDuration) {
+        this.routingEngine = routingEngine;
+        this.tspSolver = tspSolver;
+        this.solverPool = solverPool;
+        this.persistence = persistence;
+        this.matrixProfile = matrixProfile;
+        this.byDuration = byDuration;
+        graphReloader.register(routingEngine);
+    }
+
+    protected String solve(TspRequest tspRequest) {
+        long started = System.nanoTime();
+        // Build the dense index once; the search and the response work on location indices
+        ProblemIndex index = ProblemIndex.of(tspRequest);
+        TspRequest.Configuration configuration = tspRequest.getConfiguration();
+        SolvePreset preset = tspSolver.preset(configuration);
+
+        // Route every pair once, then search on the matrix instead of issuing route calls per candidate
+        RouteQuery query = RouteQuery.of(configuration != null ? configuration.getRouting() : null, index.getLocationIds());
+        RoutingMatrix matrix;
+        try (RoutingEngine.Lease lease = routingEngine.acquire()) {
+            matrix = RoutingMatrix.compute(lease.hopper(), index.getLat(), index.getLon(), query, solverPool);
+            if (query.isPlain()) {
+                persistence.recordMatrix(matrixProfile, lease.version(), index, matrix);
+            }
+        }
+        int[] tour = tspSolver.solve(byDuration ? matrix.getDurations() : matrix.getDistances(), index.getSize(), configuration, preset);
+
+        return formatSolutionResponse(index, tour, matrix, preset, started);
+    }
+
+    private static String formatSolutionResponse(ProblemIndex index, int[] tour, RoutingMatrix matrix, SolvePreset preset, long started) {
+        String vehicleId = index.getJobIds()[0];
+        double totalDistance = MultiStartTspSolver.tourCost(tour, matrix.getDistances(), tour.length);
+        double totalDuration = MultiStartTspSolver.tourCost(tour, matrix.getDurations(), tour.length);
+
+        TSPSolutionResponse response = new TSPSolutionResponse();
+        TSPSolutionResponse.Solution solution = new TSPSolutionResponse.Solution(0, totalDistance, (int) totalDuration, 1, new ArrayList<>(),
+                preset.getName(), 0);
+        TSPSolutionResponse.Route route = new TSPSolutionResponse.Route(vehicleId, totalDistance, totalDuration, new ArrayList<>());
+
+        int start = tour[0];
+        int previousIndex = start;
+        double cumulativeDistance = 0.0;
+        double cumulativeDuration = 0.0;
+
+        // Add the "start" activity
+        TSPSolutionResponse.Activity startActivity = new TSPSolutionResponse.Activity(
+                "start",
+                "start-location",
+                new TSPSolutionResponse.Activity.Address(
+                        index.getLocationIds()[start],
+                        index.getNames()[start],
+                        index.getLat()[start],
+                        index.getLon()[start]),
+                0.0,
+                0.0
+        );
+        route.getActivities().add(startActivity);
+
+        // Add "visit" activities for intermediate locations
+        for (int i = 1; i < tour.length; i++) {
+            int location = tour[i];
+            double segmentDistance = matrix.distance(previousIndex, location);
+            double segmentDuration = matrix.duration(previousIndex, location);
+
+            cumulativeDistance += segmentDistance;
+            cumulativeDuration += segmentDuration;
+
+            // Fetch correct id from the index
+            String serviceLocationId = index.getJobIds()[location];
+
+            TSPSolutionResponse.Activity visitActivity = new TSPSolutionResponse.Activity(
+                    "visit",
+                    serviceLocationId,
+                    new TSPSolutionResponse.Activity.Address(
+                            index.getLocationIds()[location],
+                            index.getNames()[location],
+                            index.getLat()[location],
+                            index.getLon()[location]),
+                    cumulativeDistance,
+                    cumulativeDuration
+            );
+            route.getActivities().add(visitActivity);
+
+            previousIndex = location;
+        }
+
+        // Add the final "end" activity (from last location to start location or other designated end point)
+        double finalSegmentDistance = matrix.distance(previousIndex, start); // Distance back to start location or to final destination
+        double finalSegmentDuration = matrix.duration(previousIndex, start); // Duration back to start location or to final destination
+
+        cumulativeDistance += finalSegmentDistance;
+        cumulativeDuration += finalSegmentDuration;
+
+        TSPSolutionResponse.Activity endActivity = new TSPSolutionResponse.Activity(
+                "end",
+                "end-location",
+                new TSPSolutionResponse.Activity.Address("end", index.getNames()[start], index.getLat()[start], index.getLon()[start]),
+                cumulativeDistance,
+                cumulativeDuration
+        );
+        route.getActivities().add(endActivity);
+
+        solution.getRoutes().add(route);
+        solution.setRuntimeMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        response.setSolution(solution);
+
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(response);
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating JSON response: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,143 +1,309 @@
 package com.salescore.vrp_tsp.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.graphhopper.GHRequest;
-import com.graphhopper.GHResponse;
-import com.graphhopper.GraphHopper;
-import com.graphhopper.config.CHProfile;
 import com.graphhopper.config.Profile;
+import com.graphhopper.util.CustomModel;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.algorithm.termination.TimeTermination;
+import com.graphhopper.jsprit.core.util.UnassignedJobReasonTracker;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.FastVehicleRoutingTransportCostsMatrix;
 import com.graphhopper.jsprit.core.util.Solutions;
 import com.salescore.vrp_tsp.model.VRPSolutionResponse;
 import com.salescore.vrp_tsp.model.VrpRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 @org.springframework.stereotype.Service
 public class VrpService {
-    private GraphHopper graphHopper;
+    private final RoutingEngine routingEngine;
+    private final ForkJoinPool solverPool;
+    private final SolvePersistence persistence;
+    private final boolean rejectInfeasible;
+    private final int neighbors;
+    private final int neighborPruningMinJobs;
+    private final String defaultPreset;
+    private final int tiledMinLocations;
+    private final int tileSize;
+    private final TiledRoutingMatrix.Storage tileStorage;
+
+    @Autowired
+    public VrpService(ForkJoinPool solverPool, SolvePersistence persistence, GraphReloader graphReloader,
+                      @Value("${routing.osm-file:/app/osm/laos-latest.osm.pbf}") String osmFile,
+                      @Value("${routing.graph.dataaccess:RAM_STORE}") String dataAccess,
+                      @Value("${vrp.feasibility.reject-infeasible:false}") boolean rejectInfeasible,
+                      @Value("${vrp.solver.neighbors:40}") int neighbors,
+                      @Value("${vrp.solver.neighbor-pruning-min-jobs:200}") int neighborPruningMinJobs,
+                      @Value("${vrp.solver.preset:balanced}") String defaultPreset,
+                      @Value("${matrix.tiled.min-locations:2000}") int tiledMinLocations,
+                      @Value("${matrix.tiled.tile-size:64}") int tileSize,
+                      @Value("${matrix.tiled.storage:direct}") String tileStorage) {
+        // Rebuilt and swapped in the background by the reloader when the OSM extract changes;
+        // CH for plain requests, LM-prepared custom profile for per-request restrictions
+        this(new RoutingEngine("vrp", "target/routing-graph-cache-ch-lm", osmFile, dataAccess, hopper ->
+                        RouteQuery.configure(hopper, new Profile("car").setWeighting("fastest"), new CustomModel().setDistanceInfluence(0))),
+                solverPool, persistence, rejectInfeasible, neighbors, neighborPruningMinJobs, defaultPreset,
+                tiledMinLocations, tileSize, tileStorage);
+        graphReloader.register(routingEngine);
+    }
+
+    VrpService(RoutingEngine routingEngine, ForkJoinPool solverPool, SolvePersistence persistence, boolean rejectInfeasible,
+               int neighbors, int neighborPruningMinJobs, String defaultPreset, int tiledMinLocations, int tileSize,
+               String tileStorage) {
+        this.routingEngine = routingEngine;
+        this.solverPool = solverPool;
+        this.persistence = persistence;
+        this.rejectInfeasible = rejectInfeasible;
+        this.neighbors = neighbors;
+        this.neighborPruningMinJobs = neighborPruningMinJobs;
+        this.defaultPreset = defaultPreset;
+        this.tiledMinLocations = tiledMinLocations;
+        this.tileSize = tileSize;
+        this.tileStorage = TiledRoutingMatrix.storage(tileStorage);
+    }
+
+    public String solveVrp(VrpRequest vrpRequest) {
+        long started = System.nanoTime();
+        SolvePreset preset = SolvePreset.of(vrpRequest.getConfiguration() != null ? vrpRequest.getConfiguration().getPreset() : null, defaultPreset);
+
+        // Dense index over vehicle starts, services and shipment stops; every jsprit location carries its index
+        ProblemIndex index = ProblemIndex.of(vrpRequest);
+        VrpRequest.Configuration configuration = vrpRequest.getConfiguration();
+        RouteQuery query = RouteQuery.of(configuration != null ? configuration.getRouting() : null, index.getLocationIds());
+        TravelMatrix matrix;
+        if (index.getSize() >= tiledMinLocations) {
+            // Province scale: off-heap tiles routed around each location's neighbours, the rest on demand during the search
+            matrix = TiledRoutingMatrix.compute(routingEngine.acquire(), index.getLat(), index.getLon(), query, solverPool,
+                    index.getDepotCount(), tileSize, tileStorage, 2 * neighbors);
+        } else {
+            try (RoutingEngine.Lease lease = routingEngine.acquire()) {
+                RoutingMatrix dense = RoutingMatrix.compute(lease.hopper(), index.getLat(), index.getLon(), query, solverPool);
+                if (query.isPlain()) {
+                    persistence.recordMatrix("vrp-car-fastest", lease.version(), index, dense);
+                }
+                matrix = dense;
+            }
+        }
 
-    public VrpService() {
         try {
-            graphHopper = new GraphHopper();
-            graphHopper.setGraphHopperLocation("target/routing-graph-cache");
-            String osmFilePath = "/app/osm/laos-latest.osm.pbf";
-            graphHopper.setOSMFile(osmFilePath);
-            graphHopper.setProfiles(new Profile("car").setWeighting("fastest"));
-            graphHopper.getCHPreparationHandler().setCHProfiles(new CHProfile("car"));
-            graphHopper.importOrLoad();
-        } catch (Exception e) {
-            throw new RuntimeException("Error initializing GraphHopper: " + e.getMessage(), e);
+            return solve(vrpRequest, index, matrix, preset, started);
+        } finally {
+            matrix.close();
         }
     }
 
-    public String solveVrp(VrpRequest vrpRequest) {
+    String solve(VrpRequest vrpRequest, ProblemIndex index, TravelMatrix matrix, SolvePreset preset, long started) {
         final int WEIGHT_INDEX = 0;
 
-        boolean capacityProvided = vrpRequest.getVehicleTypes().stream().anyMatch(type -> type.getCapacity() > 0);
-        boolean timeWindowProvided = vrpRequest.getServices().stream().anyMatch(service -> service.getTimewindow().getStartTime() != null);
+        boolean capacityProvided = vrpRequest.getVehicleTypes().stream()
+                .anyMatch(type -> type.getCapacity() > 0 || (type.getCapacities() != null && !type.getCapacities().isEmpty()));
+        // Any service or shipment stop with a window start or end
+        boolean timeWindowProvided = IntStream.range(index.getDepotCount(), index.getSize()).anyMatch(index::hasTimeWindow);
 
         // Create vehicle types with capacity check
-        List<VehicleTypeImpl> vehicleTypes = new ArrayList<>();
+        Map<String, VehicleTypeImpl> vehicleTypes = new HashMap<>();
         for (VrpRequest.VehicleType type : vrpRequest.getVehicleTypes()) {
             VehicleTypeImpl.Builder typeBuilder = VehicleTypeImpl.Builder.newInstance(type.getTypeId());
-            if (capacityProvided) {
+            if (capacityProvided && type.getCapacities() != null) {
+                // One jsprit capacity dimension per entry (weight, volume, ...), checked by jsprit's load states
+                for (int d = 0; d < type.getCapacities().size(); d++) {
+                    typeBuilder.addCapacityDimension(d, type.getCapacities().get(d));
+                }
+            } else if (capacityProvided) {
                 typeBuilder.addCapacityDimension(WEIGHT_INDEX, type.getCapacity());
             }
-            vehicleTypes.add(typeBuilder.build());
+            vehicleTypes.putIfAbsent(type.getTypeId(), typeBuilder.build());
         }
 
-        // Build vehicles with optional time windows
+        // Build vehicles with optional time windows; a vehicle with several trips runs them one after another,
+        // see the trip rounds below
         List<VehicleImpl> vehicles = new ArrayList<>();
-        for (VrpRequest.Vehicle vehicle : vrpRequest.getVehicles()) {
-            VehicleTypeImpl type = vehicleTypes.stream()
-                    .filter(t -> t.getTypeId().equals(vehicle.getTypeId()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid vehicle type: " + vehicle.getTypeId()));
-
-            VehicleImpl.Builder vehicleBuilder = VehicleImpl.Builder.newInstance(vehicle.getVehicleId())
-                    .setStartLocation(Location.newInstance(vehicle.getStartAddress().getLon(), vehicle.getStartAddress().getLat()))
-                    .setType(type);
-
-            // If vehicle time windows are provided, set them here
-            if (vehicle.getStartTime() != null && vehicle.getEndTime() != null) {
-                vehicleBuilder.setEarliestStart(vehicle.getStartTime())
-                        .setLatestArrival(vehicle.getEndTime());
+        VehicleTypeImpl[] types = new VehicleTypeImpl[index.getDepotCount()];
+        int[] maxTrips = new int[index.getDepotCount()];
+        for (int v = 0; v < index.getDepotCount(); v++) {
+            VrpRequest.Vehicle vehicle = vrpRequest.getVehicles().get(v);
+            types[v] = vehicleTypes.get(vehicle.getTypeId());
+            if (types[v] == null) {
+                throw new IllegalArgumentException("Invalid vehicle type: " + vehicle.getTypeId());
             }
-
-            vehicles.add(vehicleBuilder.build());
+            maxTrips[v] = vehicle.getMaxTrips() != null ? Math.max(1, vehicle.getMaxTrips()) : 1;
+            boolean shift = vehicle.getStartTime() != null && vehicle.getEndTime() != null;
+            vehicles.add(vehicle(vehicle, types[v], index, v, shift ? index.getWindowStart()[v] : 0L));
         }
 
-        // Create services with optional capacity and time window settings
-        List<Service> services = new ArrayList<>();
-        for (VrpRequest.VrpService service : vrpRequest.getServices()) {
-            Service.Builder serviceBuilder = Service.Builder.newInstance(service.getId())
-                    .setLocation(Location.newInstance(service.getAddress().getLon(), service.getAddress().getLat()));
+        // Create services with optional capacity, dwell time, skills and time window settings
+        List<Job> jobs = new ArrayList<>();
+        for (int i = index.getDepotCount(); i < index.getDepotCount() + index.getServiceCount(); i++) {
+            VrpRequest.VrpService service = vrpRequest.getServices().get(i - index.getDepotCount());
+            Service.Builder serviceBuilder = Service.Builder.newInstance(index.getJobIds()[i])
+                    .setLocation(location(index, i))
+                    .setServiceTime(index.getServiceTime()[i]);
 
             if (capacityProvided) {
-                serviceBuilder.addSizeDimension(WEIGHT_INDEX, service.getSize());
+                for (int d = 0; d < index.getDimensions(); d++) {
+                    serviceBuilder.addSizeDimension(d, index.demand(i, d));
+                }
+            }
+
+            if (service.getRequiredSkills() != null) {
+                service.getRequiredSkills().forEach(serviceBuilder::addRequiredSkill);
             }
 
             if (timeWindowProvided) {
                 serviceBuilder.setTimeWindow(
                         new com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow(
-                                service.getTimewindow().getStartTime(),
-                                service.getTimewindow().getEndTime()
+                                index.getWindowStart()[i],
+                                index.getWindowEnd()[i]
                         ));
             }
-            services.add(serviceBuilder.build());
+            jobs.add(serviceBuilder.build());
         }
 
+        // Paired pickup and delivery jobs; jsprit keeps both stops on the same route, pickup first
+        for (int s = 0; s < index.getShipmentCount(); s++) {
+            VrpRequest.VrpShipment shipment = vrpRequest.getShipments().get(s);
+            int pickup = index.pickupIndex(s);
+            int delivery = pickup + 1;
+            Shipment.Builder shipmentBuilder = Shipment.Builder.newInstance(index.getJobIds()[pickup])
+                    .setPickupLocation(location(index, pickup))
+                    .setDeliveryLocation(location(index, delivery))
+                    .setPickupServiceTime(index.getServiceTime()[pickup])
+                    .setDeliveryServiceTime(index.getServiceTime()[delivery])
+                    .setPickupTimeWindow(new com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow(
+                            index.getWindowStart()[pickup], index.getWindowEnd()[pickup]))
+                    .setDeliveryTimeWindow(new com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow(
+                            index.getWindowStart()[delivery], index.getWindowEnd()[delivery]));
+
+            if (capacityProvided) {
+                for (int d = 0; d < index.getDimensions(); d++) {
+                    shipmentBuilder.addSizeDimension(d, index.demand(pickup, d));
+                }
+            }
 
-        // Build the VRP problem
-        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
-        vehicles.forEach(vrpBuilder::addVehicle);
-        services.forEach(vrpBuilder::addJob);
-        VehicleRoutingProblem problem = vrpBuilder.build();
+            if (shipment.getRequiredSkills() != null) {
+                shipment.getRequiredSkills().forEach(shipmentBuilder::addRequiredSkill);
+            }
+            jobs.add(shipmentBuilder.build());
+        }
 
-        // Run the algorithm
-        VehicleRoutingAlgorithm algorithm = Jsprit.createAlgorithm(problem);
-        Collection<VehicleRoutingProblemSolution> solutions = algorithm.searchSolutions();
-        VehicleRoutingProblemSolution bestSolution = Solutions.bestOf(solutions);
+        // Road distances/durations between all indexed locations replace jsprit's crow-fly default
+        VehicleRoutingTransportCosts costs;
+        TiledTransportCosts tiledCosts = null;
+        if (matrix instanceof TiledRoutingMatrix tiled) {
+            tiledCosts = new TiledTransportCosts(tiled);
+            costs = tiledCosts;
+        } else {
+            FastVehicleRoutingTransportCostsMatrix.Builder costsBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(index.getSize(), false);
+            for (int from = 0; from < index.getSize(); from++) {
+                for (int to = 0; to < index.getSize(); to++) {
+                    costsBuilder.addTransportTimeAndDistance(from, to, matrix.duration(from, to), matrix.distance(from, to));
+                }
+            }
+            costs = costsBuilder.build();
+        }
+
+        // Jobs no vehicle can serve even on a dedicated route are left out of the search (or rejected)
+        Map<String, Integer> infeasible = FeasibilityCheck.infeasibleJobs(vehicles, jobs, matrix);
+        if (!infeasible.isEmpty() && rejectInfeasible) {
+            throw new IllegalArgumentException("Infeasible jobs: " + infeasible.entrySet().stream()
+                    .map(entry -> entry.getKey() + " (" + FeasibilityCheck.reason(entry.getValue()) + ")")
+                    .toList());
+        }
+        List<Job> feasibleJobs = jobs.stream().filter(job -> !infeasible.containsKey(job.getId())).toList();
+
+        // Trip rounds: each round solves the open jobs with one trip per vehicle. A vehicle goes again in the next
+        // round only if it ran a trip and has trips left, leaving the depot when that trip is back, so the trips of
+        // one vehicle never overlap and each starts empty. Without multi-trip vehicles this is a single search.
+        UnassignedJobReasonTracker reasonTracker = new UnassignedJobReasonTracker();
+        Map<VehicleRoute, Integer> tripNumbers = new LinkedHashMap<>();
+        int[] tripsRun = new int[index.getDepotCount()];
+        double routeCosts = 0;
+        double openPenalty = 0; // jsprit's penalty for the jobs the last round left open
+        Collection<Job> open = feasibleJobs;
+        List<VehicleImpl> roundVehicles = vehicles;
+        while (!open.isEmpty() && !roundVehicles.isEmpty()) {
+            // Finite fleet, also for single-trip requests: every listed vehicle drives at most one route per round.
+            // jsprit's default infinite fleet would clone a vehicle into as many parallel routes as it likes.
+            VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+            vrpBuilder.setFleetSize(VehicleRoutingProblem.FleetSize.FINITE);
+            vrpBuilder.setRoutingCost(costs);
+            roundVehicles.forEach(vrpBuilder::addVehicle);
+            open.forEach(vrpBuilder::addJob);
+            VehicleRoutingProblem problem = vrpBuilder.build();
+            // The first round gets the whole time limit, later rounds the share of the jobs still open
+            double timeShare = (double) open.size() / feasibleJobs.size();
+            VehicleRoutingProblemSolution roundSolution = search(problem, preset, matrix, tiledCosts, reasonTracker, timeShare);
+            double roundRouteCosts = roundSolution.getRoutes().stream().mapToDouble(route -> routeCost(problem, route)).sum();
+            routeCosts += roundRouteCosts;
+            openPenalty = roundSolution.getCost() - roundRouteCosts;
+
+            List<VehicleImpl> nextVehicles = new ArrayList<>();
+            for (VehicleRoute route : roundSolution.getRoutes()) {
+                int v = route.getStart().getLocation().getIndex();
+                tripNumbers.put(route, ++tripsRun[v]);
+                if (tripsRun[v] < maxTrips[v]) {
+                    nextVehicles.add(vehicle(vrpRequest.getVehicles().get(v), types[v], index, v, (long) Math.ceil(route.getEnd().getArrTime())));
+                }
+            }
+            open = roundSolution.getUnassignedJobs();
+            roundVehicles = nextVehicles;
+        }
 
         // Create the VRPSolutionResponse object
         VRPSolutionResponse vrpSolutionResponse = new VRPSolutionResponse();
         VRPSolutionResponse.Solution solution = new VRPSolutionResponse.Solution();
-        solution.setCosts(bestSolution.getCost());
+        solution.setCosts(routeCosts + openPenalty);
         solution.setDistance(0);
         solution.setTime(0);
-        solution.setNoVehicles(bestSolution.getRoutes().size()); // count of active routes
+        solution.setNoVehicles((int) tripNumbers.keySet().stream()
+                .map(route -> route.getStart().getLocation().getIndex())
+                .distinct()
+                .count()); // count of vehicles with at least one active trip
         solution.setRoutes(new ArrayList<>());
 
         double totalDistance = 0;
         long totalTime = 0;
 
-        for (VehicleRoute route : bestSolution.getRoutes()) {
-            // Retrieve the vehicle associated with this route
-            long accumulatedTime = 0;
-            String vehicleId = route.getVehicle().getId();
-            VrpRequest.Vehicle vehicle = vrpRequest.getVehicles().stream()
-                    .filter(v -> v.getVehicleId().equals(vehicleId))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Vehicle not found: " + vehicleId));
+        for (Map.Entry<VehicleRoute, Integer> trip : tripNumbers.entrySet()) {
+            VehicleRoute route = trip.getKey();
+            // The route start carries the index of the vehicle's start address
+            int start = route.getStart().getLocation().getIndex();
+            String vehicleId = index.getJobIds()[start];
 
             VRPSolutionResponse.Solution.Route routeResponse = new VRPSolutionResponse.Solution.Route();
             routeResponse.setVehicleId(vehicleId);
+            routeResponse.setTrip(trip.getValue());
             routeResponse.setActivities(new ArrayList<>());
 
-            int loadBefore = 0;
-            Location previousLocation = route.getStart().getLocation();
+            int[] load = new int[index.getDimensions()];
+            int previous = start;
             double routeDistance = 0;
             long routeTime = 0;
 
@@ -147,60 +313,59 @@ public class VrpService {
             startActivity.setId("start-location");  // Use the locationId from startAddress
             startActivity.setAddress(new VRPSolutionResponse.Solution.Route.Address(
                     "start",
-                    vehicle.getStartAddress().getLocationId(),  // Use locationId from startAddress
-                    previousLocation.getCoordinate().getY(),
-                    previousLocation.getCoordinate().getX()
+                    index.getLocationIds()[start],  // Use locationId from startAddress
+                    index.getLat()[start],
+                    index.getLon()[start]
             ));
             startActivity.setDistance(0);
             startActivity.setDuration(0);
-            startActivity.setLoadBefore(loadBefore);
-            startActivity.setLoadAfter(loadBefore);
+            startActivity.setArriveTime((long) route.getDepartureTime());
+            startActivity.setEndTime((long) route.getDepartureTime());
+            setLoads(startActivity, load, load);
             routeResponse.getActivities().add(startActivity);
 
 
             // Process activities
             for (TourActivity activity : route.getActivities()) {
-                double distance = calculateDistance(previousLocation, activity.getLocation());
-                long travelTime = calculateTime(previousLocation, activity.getLocation());
+                int current = activity.getLocation().getIndex();
+                double distance = matrix.distance(previous, current);
+                long travelTime = (long) matrix.duration(previous, current); // Seconds
                 routeDistance += distance;
                 routeTime += travelTime;
                 totalDistance += distance;
                 totalTime += travelTime;
 
-                VrpRequest.VrpService serviceRequest = vrpRequest.getServices().stream()
-                        .filter(service -> service.getAddress().getLon() == activity.getLocation().getCoordinate().getX() &&
-                                service.getAddress().getLat() == activity.getLocation().getCoordinate().getY())
-                        .findFirst()
-                        .orElseThrow(() -> new RuntimeException("Service not found"));
-
-                int serviceSize = serviceRequest.getSize();
+                int[] loadAfter = load.clone();
+                for (int d = 0; d < loadAfter.length; d++) {
+                    loadAfter[d] += index.demand(current, d);
+                }
                 VRPSolutionResponse.Solution.Route.Activity serviceActivity = new VRPSolutionResponse.Solution.Route.Activity();
-                serviceActivity.setType("visit");
-                serviceActivity.setId(serviceRequest.getId());
+                serviceActivity.setType(activity instanceof PickupShipment ? "pickup"
+                        : activity instanceof DeliverShipment ? "delivery" : "visit");
+                serviceActivity.setId(index.getJobIds()[current]);
                 serviceActivity.setAddress(new VRPSolutionResponse.Solution.Route.Address(
-                        serviceRequest.getAddress().getLocationId(),
-                        serviceRequest.getName(),
-                        activity.getLocation().getCoordinate().getY(),
-                        activity.getLocation().getCoordinate().getX()));
+                        index.getLocationIds()[current],
+                        index.getNames()[current],
+                        index.getLat()[current],
+                        index.getLon()[current]));
                 serviceActivity.setDistance(distance);
-                serviceActivity.setDuration(travelTime / 1000); // Convert milliseconds to seconds
-                serviceActivity.setLoadBefore(loadBefore);
-                serviceActivity.setLoadAfter(loadBefore + serviceSize);
+                serviceActivity.setDuration(travelTime);
+                setLoads(serviceActivity, load, loadAfter);
 
-                // Set arrival and end times for the service activity
-                serviceActivity.setArriveTime(accumulatedTime + travelTime / 1000); // Arrival in seconds
-                accumulatedTime += travelTime / 1000; // Update accumulated time for travel
-                serviceActivity.setEndTime((long) (accumulatedTime + serviceActivity.getDuration())); // End time after service
+                // Arrival and end times come from jsprit's schedule, so waiting and dwell time are included
+                serviceActivity.setServiceTime(index.getServiceTime()[current]);
+                serviceActivity.setArriveTime((long) activity.getArrTime()); // Arrival in seconds
+                serviceActivity.setEndTime((long) activity.getEndTime()); // End time after service
 
-                loadBefore += serviceSize;
+                load = loadAfter;
                 routeResponse.getActivities().add(serviceActivity);
-                previousLocation = activity.getLocation();
+                previous = current;
             }
 
             // Add end location
-            Location endLocation = route.getEnd().getLocation();
-            double endDistance = calculateDistance(previousLocation, endLocation);
-            long endTime = calculateTime(previousLocation, endLocation);
+            int end = route.getEnd().getLocation().getIndex();
+            double endDistance = matrix.distance(previous, end);
+            long endTime = (long) matrix.duration(previous, end);
             routeDistance += endDistance;
             routeTime += endTime;
             totalDistance += endDistance;
@@ -211,22 +376,35 @@ public class VrpService {
             endActivity.setId("end-location");
             endActivity.setAddress(new VRPSolutionResponse.Solution.Route.Address(
                     "end",
-                    vehicle.getStartAddress().getLocationId(),  // Use locationId from startAddress
-                    endLocation.getCoordinate().getY(),
-                    endLocation.getCoordinate().getX()));
+                    index.getLocationIds()[start],  // Use locationId from startAddress
+                    index.getLat()[end],
+                    index.getLon()[end]));
             endActivity.setDistance(endDistance);
-            endActivity.setDuration(endTime / 1000); // Convert time from milliseconds to seconds
-            endActivity.setLoadBefore(loadBefore);
-            endActivity.setLoadAfter(loadBefore);
+            endActivity.setDuration(endTime);
+            endActivity.setArriveTime((long) route.getEnd().getArrTime());
+            endActivity.setEndTime((long) route.getEnd().getArrTime());
+            setLoads(endActivity, load, load);
             routeResponse.getActivities().add(endActivity);
 
             routeResponse.setDistance(routeDistance);
-            routeResponse.setDuration(routeTime / 1000); // Convert time from milliseconds to seconds
+            routeResponse.setDuration(routeTime);
             solution.getRoutes().add(routeResponse);
         }
 
         solution.setDistance(totalDistance);
-        solution.setTime((int) totalTime / 1000); // Convert milliseconds to seconds
+        solution.setTime((int) totalTime);
+
+        // Unassigned jobs: pre-solve rejections first, then whatever the search could not insert
+        List<VRPSolutionResponse.Solution.UnassignedJob> unassigned = new ArrayList<>();
+        infeasible.forEach((jobId, code) -> unassigned.add(
+                new VRPSolutionResponse.Solution.UnassignedJob(jobId, code, FeasibilityCheck.reason(code), true)));
+        for (Job job : open) {
+            unassigned.add(new VRPSolutionResponse.Solution.UnassignedJob(job.getId(),
+                    reasonTracker.getMostLikelyReasonCode(job.getId()), reasonTracker.getMostLikelyReason(job.getId()), false));
+        }
+        solution.setUnassigned(unassigned);
+        solution.setPreset(preset.getName());
+        solution.setRuntimeMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
         vrpSolutionResponse.setSolution(solution);
 
         // Convert the vrpSolutionResponse to JSON
@@ -238,31 +416,93 @@ public class VrpService {
         }
     }
 
-    // Calculate distance using GraphHopper
-    private double calculateDistance(Location start, Location end) {
-        GHRequest request = new GHRequest(start.getCoordinate().getY(), start.getCoordinate().getX(),
-                end.getCoordinate().getY(), end.getCoordinate().getX())
-                .setProfile("car").setLocale("en");
-        GHResponse response = graphHopper.route(request);
-
-        if (response.hasErrors()) {
-            throw new RuntimeException("Error calculating distance: " + response.getErrors());
+    // One jsprit search, limited to timeShare of the preset time limit
+    private VehicleRoutingProblemSolution search(VehicleRoutingProblem problem, SolvePreset preset, TravelMatrix matrix,
+                                                 TiledTransportCosts tiledCosts, UnassignedJobReasonTracker reasonTracker, double timeShare) {
+        Jsprit.Builder builder = Jsprit.Builder.newInstance(problem);
+        preset.configure(builder);
+        NeighborInsertionConstraint neighborConstraint = null;
+        if (problem.getJobs().size() >= neighborPruningMinJobs) {
+            // Large instances: only evaluate insertions into routes near the job (k nearest by road distance)
+            neighborConstraint = new NeighborInsertionConstraint(matrix.neighbors(neighbors));
+            StateManager stateManager = new StateManager(problem);
+            ConstraintManager constraintManager = new ConstraintManager(problem, stateManager);
+            constraintManager.addConstraint(neighborConstraint);
+            builder.setStateAndConstraintManager(stateManager, constraintManager);
+        }
+        // jsprit ranks all job pairs for its ruin neighbourhoods while building; estimates keep that from routing every tile
+        if (tiledCosts != null) {
+            tiledCosts.setEstimating(true);
+        }
+        VehicleRoutingAlgorithm algorithm = builder.buildAlgorithm();
+        if (tiledCosts != null) {
+            tiledCosts.setEstimating(false);
+        }
+        if (neighborConstraint != null) {
+            // The constraint follows the solution to know when to prune
+            algorithm.getSearchStrategyManager().addSearchStrategyModuleListener(neighborConstraint);
         }
+        if (preset.getVrpIterations() != null) {
+            algorithm.setMaxIterations(preset.getVrpIterations());
+        }
+        if (preset.getVrpTimeLimitMs() != null) {
+            TimeTermination timeTermination = new TimeTermination(Math.max(1, (long) (preset.getVrpTimeLimitMs() * timeShare)));
+            algorithm.addTerminationCriterion(timeTermination);
+            algorithm.addListener(timeTermination);
+        }
+        // The tracker records which constraint kept each job out of the routes
+        algorithm.addListener(reasonTracker);
+        // Stop searching once the solver thread is interrupted (caller cancelled or client disconnected)
+        algorithm.addTerminationCriterion(discoveredSolution -> Thread.currentThread().isInterrupted());
+        return Solutions.bestOf(algorithm.searchSolutions());
+    }
 
-        return response.getBest().getDistance();
+    // Fixed, transport and activity costs of one trip, priced like jsprit's objective prices a route
+    private static double routeCost(VehicleRoutingProblem problem, VehicleRoute route) {
+        double cost = route.getVehicle().getType().getVehicleCostParams().fix;
+        TourActivity previous = route.getStart();
+        for (TourActivity activity : route.getActivities()) {
+            cost += problem.getTransportCosts().getTransportCost(previous.getLocation(), activity.getLocation(),
+                    previous.getEndTime(), route.getDriver(), route.getVehicle());
+            cost += problem.getActivityCosts().getActivityCost(activity, activity.getArrTime(), route.getDriver(), route.getVehicle());
+            previous = activity;
+        }
+        return cost + problem.getTransportCosts().getTransportCost(previous.getLocation(), route.getEnd().getLocation(),
+                previous.getEndTime(), route.getDriver(), route.getVehicle());
     }
 
-    // Calculate travel time using GraphHopper
-    private long calculateTime(Location start, Location end) {
-        GHRequest request = new GHRequest(start.getCoordinate().getY(), start.getCoordinate().getX(),
-                end.getCoordinate().getY(), end.getCoordinate().getX())
-                .setProfile("car").setLocale("en");
-        GHResponse response = graphHopper.route(request);
+    // jsprit vehicle for one trip of vehicle v, leaving the depot no earlier than earliestStart
+    private static VehicleImpl vehicle(VrpRequest.Vehicle vehicle, VehicleTypeImpl type, ProblemIndex index, int v, long earliestStart) {
+        VehicleImpl.Builder vehicleBuilder = VehicleImpl.Builder.newInstance(vehicle.getVehicleId())
+                .setStartLocation(location(index, v))
+                .setType(type)
+                .setEarliestStart(earliestStart);
 
-        if (response.hasErrors()) {
-            throw new RuntimeException("Error calculating time: " + response.getErrors());
+        if (vehicle.getSkills() != null) {
+            vehicle.getSkills().forEach(vehicleBuilder::addSkill);
         }
 
-        return response.getBest().getTime();
+        // If vehicle time windows are provided, every trip has to be back by the end of the shift
+        if (vehicle.getStartTime() != null && vehicle.getEndTime() != null) {
+            vehicleBuilder.setLatestArrival(index.getWindowEnd()[v]);
+        }
+        return vehicleBuilder.build();
+    }
+
+    // Dimension 0 (weight) keeps the flat loadBefore/loadAfter fields, all dimensions are listed alongside
+    private static void setLoads(VRPSolutionResponse.Solution.Route.Activity activity, int[] before, int[] after) {
+        activity.setLoadBefore(before[0]);
+        activity.setLoadAfter(after[0]);
+        activity.setLoadsBefore(Arrays.stream(before).boxed().toList());
+        activity.setLoadsAfter(Arrays.stream(after).boxed().toList());
+    }
+
+    // jsprit location bound to its dense index so costs resolve through the matrix
+    private static Location location(ProblemIndex index, int i) {
+        return Location.Builder.newInstance()
+                .setId(String.valueOf(i))
+                .setIndex(i)
+                .setCoordinate(Coordinate.newInstance(index.getLon()[i], index.getLat()[i]))
+                .build();
     }
 }
@@ -0,0 +1,9 @@
+package com.salescore.vrp_tsp.service;
+
+// Worker is up but has no slot or memory for the job now; it stays in rotation
+public class WorkerBusyException extends WorkerUnavailableException {
+
+    public WorkerBusyException(String message) {
+        super(message, null);
+    }
+}
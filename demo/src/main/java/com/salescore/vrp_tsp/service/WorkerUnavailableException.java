@@ -0,0 +1,9 @@
+package com.salescore.vrp_tsp.service;
+
+// Worker unreachable, died during the solve or refused the job; the job is safe to re-dispatch
+public class WorkerUnavailableException extends RuntimeException {
+
+    public WorkerUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,33 @@
+CREATE TABLE IF NOT EXISTS solve_plan (
+    id          UUID PRIMARY KEY,
+    kind        VARCHAR(32)  NOT NULL,
+    fingerprint VARCHAR(64)  NOT NULL,
+    request     JSONB        NOT NULL,
+    response    JSONB        NOT NULL,
+    created_at  TIMESTAMPTZ  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS solve_plan_fingerprint_idx ON solve_plan (fingerprint);
+
+CREATE TABLE IF NOT EXISTS solve_route (
+    plan_id      UUID             NOT NULL REFERENCES solve_plan (id) ON DELETE CASCADE,
+    route_index  INT              NOT NULL,
+    vehicle_id   VARCHAR(255),
+    trip         INT,
+    distance     DOUBLE PRECISION,
+    duration     DOUBLE PRECISION,
+    activity_ids TEXT[],
+    PRIMARY KEY (plan_id, route_index)
+);
+
+CREATE TABLE IF NOT EXISTS routing_matrix_row (
+    matrix_key  VARCHAR(64)        NOT NULL,
+    profile     VARCHAR(32)        NOT NULL,
+    from_index  INT                NOT NULL,
+    lat         DOUBLE PRECISION   NOT NULL,
+    lon         DOUBLE PRECISION   NOT NULL,
+    distances   DOUBLE PRECISION[] NOT NULL,
+    durations   DOUBLE PRECISION[] NOT NULL,
+    created_at  TIMESTAMPTZ        NOT NULL,
+    PRIMARY KEY (matrix_key, from_index)
+);
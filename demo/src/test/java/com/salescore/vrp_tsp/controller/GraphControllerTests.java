@@ -0,0 +1,30 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.service.GraphReloader;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class GraphControllerTests {
+
+    private final GraphReloader graphReloader = mock(GraphReloader.class);
+
+    @Test
+    void reloadWithTheSharedSecretStarts() {
+        when(graphReloader.reloadAll()).thenReturn(true);
+
+        assertEquals(HttpStatus.ACCEPTED, new GraphController(graphReloader, "s3cret").reload("s3cret").getStatusCode());
+    }
+
+    @Test
+    void reloadWithoutTheSecretIsForbidden() {
+        assertEquals(HttpStatus.FORBIDDEN, new GraphController(graphReloader, "s3cret").reload(null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, new GraphController(graphReloader, "s3cret").reload("guess").getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, new GraphController(graphReloader, "").reload("").getStatusCode());
+        verifyNoInteractions(graphReloader);
+    }
+}
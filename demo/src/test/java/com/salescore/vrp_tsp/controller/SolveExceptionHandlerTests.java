@@ -0,0 +1,83 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.service.AdmissionRejectedException;
+import com.salescore.vrp_tsp.service.SolveAdmission;
+import com.salescore.vrp_tsp.service.SolveDispatcher;
+import com.salescore.vrp_tsp.service.SolveKind;
+import com.salescore.vrp_tsp.service.SolveResultCache;
+import com.salescore.vrp_tsp.service.WorkerBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SolveExceptionHandlerTests {
+
+    @Test
+    void admissionRejectionIsTooManyRequestsWithRetryAfter() {
+        ResponseEntity<String> response = new SolveExceptionHandler()
+                .handleAdmissionRejected(new AdmissionRejectedException("Solver queue is full, retry later.", 7));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Solver queue is full, retry later.", response.getBody());
+    }
+
+    @Test
+    void invalidRequestIsBadRequestWithTheReason() {
+        ResponseEntity<String> response = new SolveExceptionHandler()
+                .handleInvalidRequest(new IllegalArgumentException("Infeasible jobs: [s0 (time window)]"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Infeasible jobs: [s0 (time window)]", response.getBody());
+    }
+
+    @Test
+    void rejectedSolveAnswersBadRequest() throws Exception {
+        SolveResultCache cache = new SolveResultCache(1000, 600, 1 << 20, 0.05);
+        SolveAdmission admission = mock(SolveAdmission.class);
+        when(admission.tenant(any())).thenReturn(SolveAdmission.DEFAULT_TENANT);
+        when(admission.run(any(), anyInt(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        SolveDispatcher dispatcher = mock(SolveDispatcher.class);
+        when(dispatcher.solve(eq(SolveKind.VRP), any())).thenThrow(new IllegalArgumentException("Infeasible jobs: [s0 (time window)]"));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new VrpController(cache, admission, dispatcher, null))
+                .setControllerAdvice(new SolveExceptionHandler())
+                .build();
+
+        try {
+            MvcResult started = mvc.perform(post("/api/vrp/solve").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"vehicles\":[],\"vehicleTypes\":[]}")).andReturn();
+            mvc.perform(asyncDispatch(started))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("Infeasible jobs: [s0 (time window)]"));
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void busyWorkerIsTooManyRequests() {
+        ResponseEntity<String> response = new SolveExceptionHandler()
+                .handleWorkerBusy(new WorkerBusyException("Worker local has not enough memory for the solve"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("Worker local has not enough memory for the solve", response.getBody());
+    }
+}
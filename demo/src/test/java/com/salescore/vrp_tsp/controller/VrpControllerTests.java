@@ -0,0 +1,63 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.model.VrpRequest;
+import com.salescore.vrp_tsp.service.SolveAdmission;
+import com.salescore.vrp_tsp.service.SolveDispatcher;
+import com.salescore.vrp_tsp.service.SolveKind;
+import com.salescore.vrp_tsp.service.SolvePersistence;
+import com.salescore.vrp_tsp.service.SolveResultCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VrpControllerTests {
+
+    private final SolveResultCache cache = new SolveResultCache(1000, 600, 1 << 20, 0.05);
+    private final SolveAdmission admission = new SolveAdmission(new SimpleMeterRegistry(), 2, 4, 64, 1_000, 25, 2, 100, List.of(), 0);
+    private final SolveDispatcher dispatcher = mock(SolveDispatcher.class);
+    private final SolvePersistence persistence = mock(SolvePersistence.class);
+    private final VrpController controller = new VrpController(cache, admission, dispatcher, persistence);
+
+    @AfterEach
+    void shutdown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void repeatedRequestIsStoredOnceAndAnswersWithTheSamePlanId() throws Exception {
+        UUID planId = UUID.randomUUID();
+        when(dispatcher.solve(eq(SolveKind.VRP), any())).thenReturn("{\"solution\":{}}");
+        when(persistence.recordPlan(eq("vrp"), anyString(), any(), eq("{\"solution\":{}}"))).thenReturn(planId);
+
+        ResponseEntity<String> first = controller.solveVrp(null, request()).call();
+        ResponseEntity<String> repeated = controller.solveVrp(null, request()).call();
+
+        assertEquals(planId.toString(), first.getHeaders().getFirst(PlanController.PLAN_ID_HEADER));
+        assertEquals(planId.toString(), repeated.getHeaders().getFirst(PlanController.PLAN_ID_HEADER));
+        assertEquals("{\"solution\":{}}", repeated.getBody());
+        verify(dispatcher, times(1)).solve(eq(SolveKind.VRP), any());
+        verify(persistence, times(1)).recordPlan(anyString(), anyString(), any(), anyString());
+    }
+
+    private static VrpRequest request() {
+        VrpRequest request = new VrpRequest();
+        request.setVehicleTypes(List.of(new VrpRequest.VehicleType("small", 2, null, null)));
+        request.setVehicles(List.of(new VrpRequest.Vehicle("van", "small",
+                new VrpRequest.Vehicle.StartAddress("depot", 0, 0), null, null, null, null)));
+        request.setServices(List.of());
+        return request;
+    }
+}
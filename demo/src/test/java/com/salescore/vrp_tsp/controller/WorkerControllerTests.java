@@ -0,0 +1,46 @@
+package com.salescore.vrp_tsp.controller;
+
+import com.salescore.vrp_tsp.model.VrpRequest;
+import com.salescore.vrp_tsp.service.LocalSolveWorker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WorkerControllerTests {
+
+    private final LocalSolveWorker localWorker = mock(LocalSolveWorker.class);
+
+    @Test
+    void jobWithTheSharedSecretIsSolved() throws Exception {
+        when(localWorker.solve(any(), any())).thenReturn("{\"solution\":{}}");
+        WorkerController controller = new WorkerController(localWorker, "s3cret");
+
+        ResponseEntity<String> response = controller.solveVrp("s3cret", new VrpRequest()).call();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"solution\":{}}", response.getBody());
+    }
+
+    @Test
+    void jobWithoutTheSecretIsForbidden() throws Exception {
+        WorkerController controller = new WorkerController(localWorker, "s3cret");
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.solveVrp(null, new VrpRequest()).call().getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, controller.solveTspDistance("guess", null).call().getStatusCode());
+        verifyNoInteractions(localWorker);
+    }
+
+    @Test
+    void everyJobIsForbiddenWithoutAConfiguredSecret() throws Exception {
+        WorkerController controller = new WorkerController(localWorker, "");
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.solveTspDuration("", null).call().getStatusCode());
+        verifyNoInteractions(localWorker);
+    }
+}
@@ -0,0 +1,80 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeasibilityCheckTests {
+
+    // Depot at 0, stops 1 to 4 km east of it (100 s per km)
+    private final TravelMatrix matrix = new PlaneMatrix(new double[5], new double[]{0, 1, 2, 3, 4});
+    private final VehicleImpl van = VehicleImpl.Builder.newInstance("van")
+            .setStartLocation(location(0))
+            .setType(VehicleTypeImpl.Builder.newInstance("small").addCapacityDimension(0, 10).build())
+            .setEarliestStart(0)
+            .setLatestArrival(1_000)
+            .build();
+
+    @Test
+    void servableJobsPass() {
+        Job service = Service.Builder.newInstance("s1").setLocation(location(1)).addSizeDimension(0, 10).build();
+        Job shipment = Shipment.Builder.newInstance("p1").setPickupLocation(location(1)).setDeliveryLocation(location(2))
+                .addSizeDimension(0, 5).build();
+
+        assertTrue(FeasibilityCheck.infeasibleJobs(List.of(van), List.of(service, shipment), matrix).isEmpty());
+    }
+
+    @Test
+    void missingSkillIsReported() {
+        Job service = Service.Builder.newInstance("s1").setLocation(location(1)).addRequiredSkill("refrigerated").build();
+
+        assertEquals(Map.of("s1", FeasibilityCheck.SKILL_CONSTRAINT), FeasibilityCheck.infeasibleJobs(List.of(van), List.of(service), matrix));
+    }
+
+    @Test
+    void oversizedJobIsReported() {
+        Job service = Service.Builder.newInstance("s1").setLocation(location(1)).addSizeDimension(0, 11).build();
+        // A second dimension the vehicle type does not define has zero capacity
+        Job shipment = Shipment.Builder.newInstance("p1").setPickupLocation(location(1)).setDeliveryLocation(location(2))
+                .addSizeDimension(1, 1).build();
+
+        assertEquals(Map.of("s1", FeasibilityCheck.CAPACITY_CONSTRAINT, "p1", FeasibilityCheck.CAPACITY_CONSTRAINT),
+                FeasibilityCheck.infeasibleJobs(List.of(van), List.of(service, shipment), matrix));
+    }
+
+    @Test
+    void unreachableTimeWindowIsReported() {
+        // Window closes before the 300 s drive; window opens too late to be back by 1,000 s; shipment delivery closes too early
+        Job early = Service.Builder.newInstance("s1").setLocation(location(3)).setTimeWindow(TimeWindow.newInstance(0, 200)).build();
+        Job late = Service.Builder.newInstance("s2").setLocation(location(4)).setTimeWindow(TimeWindow.newInstance(700, 900)).build();
+        Job shipment = Shipment.Builder.newInstance("p1").setPickupLocation(location(1)).setDeliveryLocation(location(4))
+                .setDeliveryTimeWindow(TimeWindow.newInstance(0, 300)).build();
+
+        assertEquals(Map.of("s1", FeasibilityCheck.TIME_WINDOW_CONSTRAINT, "s2", FeasibilityCheck.TIME_WINDOW_CONSTRAINT,
+                        "p1", FeasibilityCheck.TIME_WINDOW_CONSTRAINT),
+                FeasibilityCheck.infeasibleJobs(List.of(van), List.of(early, late, shipment), matrix));
+    }
+
+    @Test
+    void skillsAreReportedBeforeCapacityAndTime() {
+        Job service = Service.Builder.newInstance("s1").setLocation(location(4)).addRequiredSkill("refrigerated")
+                .addSizeDimension(0, 11).setTimeWindow(TimeWindow.newInstance(0, 1)).build();
+
+        assertEquals(Map.of("s1", FeasibilityCheck.SKILL_CONSTRAINT), FeasibilityCheck.infeasibleJobs(List.of(van), List.of(service), matrix));
+    }
+
+    private static Location location(int index) {
+        return Location.Builder.newInstance().setId(String.valueOf(index)).setIndex(index).build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.salescore.vrp_tsp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class GraphReloaderTests {
+
+    private final SolveResultCache cache = new SolveResultCache(1000, 600, 1 << 20, 0.05);
+    private final GraphReloader reloader = new GraphReloader(cache, 0);
+
+    @AfterEach
+    void shutdown() {
+        reloader.shutdown();
+        cache.shutdown();
+    }
+
+    @Test
+    void failedRebuildKeepsTheCachedResults() throws Exception {
+        RoutingEngine engine = mock(RoutingEngine.class);
+        doThrow(new RuntimeException("Error rebuilding GraphHopper vrp: corrupt extract")).when(engine).rebuild();
+        reloader.register(engine);
+        cache.getOrCompute("fp", () -> new SolvedPlan(UUID.randomUUID(), "old plan"));
+
+        reload();
+
+        verify(engine).rebuild();
+        assertEquals("old plan", cache.getOrCompute("fp", () -> new SolvedPlan(UUID.randomUUID(), "new plan")).response());
+    }
+
+    @Test
+    void swappedGraphInvalidatesTheCachedResults() throws Exception {
+        RoutingEngine failing = mock(RoutingEngine.class);
+        doThrow(new RuntimeException("Error rebuilding GraphHopper tsp: corrupt extract")).when(failing).rebuild();
+        reloader.register(failing);
+        reloader.register(mock(RoutingEngine.class));
+        cache.getOrCompute("fp", () -> new SolvedPlan(UUID.randomUUID(), "old plan"));
+
+        reload();
+
+        assertEquals("new plan", cache.getOrCompute("fp", () -> new SolvedPlan(UUID.randomUUID(), "new plan")).response());
+    }
+
+    private void reload() throws InterruptedException {
+        assertTrue(reloader.reloadAll());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (reloader.isReloading() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(!reloader.isReloading());
+    }
+}
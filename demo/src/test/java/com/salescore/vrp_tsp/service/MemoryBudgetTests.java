@@ -0,0 +1,67 @@
+package com.salescore.vrp_tsp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class MemoryBudgetTests {
+
+    private final SolveResultCache cache = new SolveResultCache(1000, 600, 1 << 20, 0.05);
+    private final MemoryBudget budget = new MemoryBudget(mock(GraphReloader.class), cache, new SimpleMeterRegistry(), 0, 16, 2000);
+    private final ExecutorService solves = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        solves.shutdownNow();
+        cache.shutdown();
+    }
+
+    @Test
+    void solvesThatFitRunTogether() throws Exception {
+        assertTrue(budget.reserve(1_000, deadline(100)));
+        assertTrue(budget.reserve(1_000, deadline(100)));
+
+        assertEquals(2, budget.getRunningSolves());
+        assertEquals(2_000, budget.getReservedBytes());
+    }
+
+    @Test
+    void oversizedSolveRunsAloneUntilTheDeadline() throws Exception {
+        long oversized = 2 * budget.solverBudgetBytes();
+
+        assertTrue(budget.reserve(oversized, deadline(100)));
+        assertFalse(budget.reserve(1_000, deadline(100)));
+        assertEquals(1, budget.getRunningSolves());
+        assertEquals(oversized, budget.getReservedBytes());
+    }
+
+    @Test
+    void waitingSolveStartsWhenTheRunningOneReleases() throws Exception {
+        long oversized = 2 * budget.solverBudgetBytes();
+        assertTrue(budget.reserve(oversized, deadline(100)));
+
+        // Waits on a virtual thread, like a request would
+        Future<Boolean> waiting = solves.submit(() -> budget.reserve(1_000, deadline(5_000)));
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        budget.release(oversized);
+
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(1, budget.getRunningSolves());
+        assertEquals(1_000, budget.getReservedBytes());
+    }
+
+    private static long deadline(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,125 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.TspRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiStartTspSolverTests {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void sameSeedGivesSameTour() {
+        double[] cost = randomCost(120, 7);
+        MultiStartTspSolver solver = solver(60_000);
+
+        int[] first = solver.solve(cost, 120, seeded(1234L), SolvePreset.BALANCED);
+        int[] second = solver.solve(cost, 120, seeded(1234L), SolvePreset.BALANCED);
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void neverWorseThanGreedy() {
+        MultiStartTspSolver solver = solver(60_000);
+        for (int instance = 0; instance < 20; instance++) {
+            int size = 10 + instance * 5;
+            double[] cost = randomCost(size, instance);
+            for (SolvePreset preset : SolvePreset.values()) {
+                int[] tour = solver.solve(cost, size, null, preset);
+
+                assertTrue(MultiStartTspSolver.tourCost(tour, cost, size) <= MultiStartTspSolver.tourCost(greedy(cost, size), cost, size) + 1e-9,
+                        "instance " + instance + " with preset " + preset + " is worse than greedy");
+            }
+        }
+    }
+
+    @Test
+    void interruptStopsTheSearchBeforeTheDeadline() throws Exception {
+        double[] cost = randomCost(1500, 3);
+        MultiStartTspSolver solver = solver(60_000);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                solver.solve(cost, 1500, null, SolvePreset.THOROUGH);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        caller.start();
+        Thread.sleep(200);
+        long interruptedAt = System.nanoTime();
+        caller.interrupt();
+        caller.join(10_000);
+
+        assertTrue(!caller.isAlive(), "solve still running after interrupt");
+        assertTrue(failure.get() instanceof CancellationException, "expected cancellation but got " + failure.get());
+        // The worker threads of the pool must be released too, not only the caller
+        assertTrue(pool.awaitQuiescence(5, TimeUnit.SECONDS), "starts still running after interrupt");
+        assertTrue(System.nanoTime() - interruptedAt < 10_000_000_000L);
+    }
+
+    private MultiStartTspSolver solver(long timeLimitMs) {
+        return new MultiStartTspSolver(pool, 4, timeLimitMs, 42L, 16, "balanced");
+    }
+
+    private static TspRequest.Configuration seeded(long seed) {
+        TspRequest.Configuration configuration = new TspRequest.Configuration();
+        configuration.setSeed(seed);
+        return configuration;
+    }
+
+    // Plain nearest-neighbour tour from location 0 over the full matrix
+    private static int[] greedy(double[] cost, int size) {
+        int[] order = new int[size];
+        boolean[] visited = new boolean[size];
+        visited[0] = true;
+        for (int position = 1; position < size; position++) {
+            int current = order[position - 1];
+            int nearest = -1;
+            for (int next = 1; next < size; next++) {
+                if (!visited[next] && (nearest < 0 || cost[current * size + next] < cost[current * size + nearest])) {
+                    nearest = next;
+                }
+            }
+            order[position] = nearest;
+            visited[nearest] = true;
+        }
+        return order;
+    }
+
+    // Euclidean distances with a small asymmetric detour, like a road matrix
+    private static double[] randomCost(int size, long seed) {
+        Random random = new Random(seed);
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = random.nextDouble() * 10_000;
+            y[i] = random.nextDouble() * 10_000;
+        }
+        double[] cost = new double[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                if (from != to) {
+                    cost[from * size + to] = Math.hypot(x[from] - x[to], y[from] - y[to]) * (1 + random.nextDouble() * 0.2);
+                }
+            }
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,78 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NeighborInsertionConstraintTests {
+
+    // Ten locations 1 km apart on a line, each with its 2 nearest as neighbours
+    private final PlaneMatrix matrix = new PlaneMatrix(new double[10], new double[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+    private final NeighborLists neighbors = matrix.neighbors(2);
+    private final VehicleImpl west = vehicle("west", 0);
+    private final VehicleImpl east = vehicle("east", 9);
+    // West route serves 1 and 2, east route serves 8
+    private final VehicleRoute westRoute = VehicleRoute.Builder.newInstance(west)
+            .addService(service("s1", 1)).addService(service("s2", 2)).build();
+    private final VehicleRoute eastRoute = VehicleRoute.Builder.newInstance(east).addService(service("s8", 8)).build();
+
+    @Test
+    void farRouteIsPrunedWhileAnotherRoutePassesNearTheJob() {
+        NeighborInsertionConstraint constraint = tracking();
+        Service job = service("s3", 3);
+
+        assertTrue(constraint.fulfilled(new JobInsertionContext(westRoute, job, west, null, 0)));
+        assertFalse(constraint.fulfilled(new JobInsertionContext(eastRoute, job, east, null, 0)));
+    }
+
+    @Test
+    void jobFarFromEveryRouteGetsAFullInsertion() {
+        NeighborInsertionConstraint constraint = tracking();
+        Service job = service("s5", 5);
+
+        assertTrue(constraint.fulfilled(new JobInsertionContext(westRoute, job, west, null, 0)));
+        assertTrue(constraint.fulfilled(new JobInsertionContext(eastRoute, job, east, null, 0)));
+    }
+
+    @Test
+    void insertedJobsBringTheirNeighboursIntoReach() {
+        NeighborInsertionConstraint constraint = tracking();
+        Service job = service("s5", 5);
+        VehicleRoute extended = VehicleRoute.Builder.newInstance(east)
+                .addService(service("s8", 8)).addService(service("s6", 6)).build();
+        constraint.informJobInserted(extended.getTourActivities().getJobs().stream()
+                .filter(inserted -> inserted.getId().equals("s6")).findFirst().orElseThrow(), extended, 0, 0);
+
+        assertFalse(constraint.fulfilled(new JobInsertionContext(westRoute, job, west, null, 0)));
+        assertTrue(constraint.fulfilled(new JobInsertionContext(extended, job, east, null, 0)));
+    }
+
+    @Test
+    void nothingIsPrunedBeforeTheFirstInsertionRun() {
+        NeighborInsertionConstraint constraint = new NeighborInsertionConstraint(neighbors);
+
+        assertTrue(constraint.fulfilled(new JobInsertionContext(eastRoute, service("s3", 3), east, null, 0)));
+    }
+
+    private NeighborInsertionConstraint tracking() {
+        NeighborInsertionConstraint constraint = new NeighborInsertionConstraint(neighbors);
+        constraint.informInsertionStarts(List.of(westRoute, eastRoute), List.of());
+        return constraint;
+    }
+
+    private static VehicleImpl vehicle(String id, int location) {
+        return VehicleImpl.Builder.newInstance(id).setStartLocation(Location.newInstance(location)).build();
+    }
+
+    private static Service service(String id, int location) {
+        return Service.Builder.newInstance(id).setLocation(Location.newInstance(location)).build();
+    }
+}
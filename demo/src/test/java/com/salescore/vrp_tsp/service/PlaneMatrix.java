@@ -0,0 +1,38 @@
+package com.salescore.vrp_tsp.service;
+
+// Straight-line travel for tests: one kilometre per degree, driven at 10 m/s
+final class PlaneMatrix implements TravelMatrix {
+    private final double[] lat;
+    private final double[] lon;
+
+    PlaneMatrix(double[] lat, double[] lon) {
+        this.lat = lat;
+        this.lon = lon;
+    }
+
+    @Override
+    public int getSize() {
+        return lat.length;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        return 1_000 * Math.hypot(lon[from] - lon[to], lat[from] - lat[to]);
+    }
+
+    @Override
+    public double duration(int from, int to) {
+        return distance(from, to) / 10;
+    }
+
+    @Override
+    public NeighborLists neighbors(int k) {
+        double[] cost = new double[getSize() * getSize()];
+        for (int from = 0; from < getSize(); from++) {
+            for (int to = 0; to < getSize(); to++) {
+                cost[from * getSize() + to] = distance(from, to);
+            }
+        }
+        return NeighborLists.of(cost, getSize(), k);
+    }
+}
@@ -0,0 +1,119 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.VrpRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProblemIndexTests {
+
+    @Test
+    void depotsThenServicesThenShipmentPairs() {
+        ProblemIndex index = ProblemIndex.of(request());
+
+        assertEquals(6, index.getSize());
+        assertEquals(2, index.getDepotCount());
+        assertArrayEquals(new String[]{"van", "truck", "s0", "s1", "p0", "p0"}, index.getJobIds());
+        assertArrayEquals(new String[]{"north", "south", "a", "b", "c", "d"}, index.getLocationIds());
+        assertTrue(index.isDepot(1));
+        assertFalse(index.isDepot(2));
+        assertEquals(4, index.pickupIndex(0));
+        assertFalse(index.isShipment(3));
+        assertTrue(index.isShipment(5));
+        assertEquals(3.0, index.getLon()[5]);
+        assertEquals(1.5, index.getLat()[5]);
+    }
+
+    @Test
+    void missingWindowBoundsAreOpen() {
+        ProblemIndex index = ProblemIndex.of(request());
+
+        // Vehicle shift on the first depot, a window end only on s1, a window start only on the delivery
+        assertEquals(100L, index.getWindowStart()[0]);
+        assertEquals(900L, index.getWindowEnd()[0]);
+        assertFalse(index.hasTimeWindow(1));
+        assertFalse(index.hasTimeWindow(2));
+        assertEquals(ProblemIndex.NO_WINDOW_START, index.getWindowStart()[3]);
+        assertEquals(500L, index.getWindowEnd()[3]);
+        assertTrue(index.hasTimeWindow(3));
+        assertFalse(index.hasTimeWindow(4));
+        assertEquals(300L, index.getWindowStart()[5]);
+        assertEquals(ProblemIndex.NO_WINDOW_END, index.getWindowEnd()[5]);
+    }
+
+    @Test
+    void demandsSpanEveryDimensionAndDeliveriesAreNegated() {
+        VrpRequest request = request();
+        request.getServices().get(0).setSizes(List.of(1, 2, 3));
+        request.getServices().get(0).setServiceTime(30L);
+        request.getShipments().get(0).setSizes(List.of(4, 5, 0));
+        request.getShipments().get(0).getDelivery().setServiceTime(20L);
+
+        ProblemIndex index = ProblemIndex.of(request);
+
+        assertEquals(3, index.getDimensions());
+        assertEquals(3, index.demand(2, 2));
+        // A scalar size fills the first dimension only
+        assertEquals(1, index.demand(3, 0));
+        assertEquals(0, index.demand(3, 1));
+        assertEquals(5, index.demand(4, 1));
+        assertEquals(-4, index.demand(5, 0));
+        assertEquals(-5, index.demand(5, 1));
+        assertEquals(0, index.demand(5, 2));
+        assertArrayEquals(new long[]{0L, 0L, 30L, 0L, 0L, 20L}, index.getServiceTime());
+    }
+
+    @Test
+    void sizesWithMissingOrNegativeEntriesAreRejected() {
+        VrpRequest missing = request();
+        missing.getServices().get(0).setSizes(Arrays.asList(1, null));
+        VrpRequest negative = request();
+        negative.getShipments().get(0).setSizes(List.of(2, -1));
+        VrpRequest negativeScalar = request();
+        negativeScalar.getServices().get(1).setSize(-3);
+
+        assertEquals("Invalid sizes of service s0: [1, null] has a missing or negative entry.",
+                assertThrows(IllegalArgumentException.class, () -> ProblemIndex.of(missing)).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> ProblemIndex.of(negative));
+        assertEquals("Invalid size of service s1: -3 is negative.",
+                assertThrows(IllegalArgumentException.class, () -> ProblemIndex.of(negativeScalar)).getMessage());
+    }
+
+    @Test
+    void dimensionCountsMustAgreeAcrossJobsAndVehicleTypes() {
+        VrpRequest jobs = request();
+        jobs.getServices().get(0).setSizes(List.of(1, 2, 3));
+        jobs.getShipments().get(0).setSizes(List.of(4, 5));
+        VrpRequest vehicleTypes = request();
+        vehicleTypes.getServices().get(0).setSizes(List.of(1, 2));
+        vehicleTypes.setVehicleTypes(List.of(new VrpRequest.VehicleType("small", 0, List.of(10, 10, 10), null)));
+
+        assertEquals("Invalid sizes of shipment p0: 2 dimensions where other jobs or vehicle types have 3.",
+                assertThrows(IllegalArgumentException.class, () -> ProblemIndex.of(jobs)).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> ProblemIndex.of(vehicleTypes));
+    }
+
+    private static VrpRequest request() {
+        VrpRequest request = new VrpRequest();
+        request.setVehicleTypes(List.of(new VrpRequest.VehicleType("small", 2, null, null)));
+        request.setVehicles(List.of(
+                new VrpRequest.Vehicle("van", "small", new VrpRequest.Vehicle.StartAddress("north", 0, 1), 100L, 900L, null, null),
+                new VrpRequest.Vehicle("truck", "small", new VrpRequest.Vehicle.StartAddress("south", 0, -1), null, null, null, null)));
+        request.setServices(List.of(
+                new VrpRequest.VrpService("s0", "outlet 0", new VrpRequest.VrpService.Address("a", 1, 0), 1, null, null, null, null),
+                new VrpRequest.VrpService("s1", "outlet 1", new VrpRequest.VrpService.Address("b", 2, 0), 1, null, null, null,
+                        new VrpRequest.VrpService.TimeWindow(null, 500L))));
+        request.setShipments(List.of(new VrpRequest.VrpShipment("p0", "parcel", 1, null, null,
+                new VrpRequest.VrpShipment.Stop(new VrpRequest.VrpService.Address("c", 3, 0.5), null, null),
+                new VrpRequest.VrpShipment.Stop(new VrpRequest.VrpService.Address("d", 3, 1.5), null,
+                        new VrpRequest.VrpService.TimeWindow(300L, null)))));
+        return request;
+    }
+}
@@ -0,0 +1,111 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.TspRequest;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RemoteSolveWorkerTests {
+
+    private final HttpServer server = start();
+    private final AtomicReference<String> presentedSecret = new AtomicReference<>();
+
+    @AfterEach
+    void shutdown() {
+        server.stop(0);
+    }
+
+    @Test
+    void jobCarriesTheSharedSecret() {
+        respond(200, "{\"solution\":{}}", 0);
+
+        assertEquals("{\"solution\":{}}", worker().solve(SolveKind.TSP_DISTANCE, new TspRequest()));
+        assertEquals("s3cret", presentedSecret.get());
+    }
+
+    @Test
+    void tooManyRequestsMeansBusy() {
+        respond(429, "Solver queue is full, retry later.", 0);
+
+        assertThrows(WorkerBusyException.class, () -> worker().solve(SolveKind.VRP, new TspRequest()));
+    }
+
+    @Test
+    void rejectedSecretTakesTheWorkerOutOfRotation() {
+        respond(403, "Invalid worker secret.", 0);
+
+        WorkerUnavailableException failure = assertThrows(WorkerUnavailableException.class,
+                () -> worker().solve(SolveKind.VRP, new TspRequest()));
+
+        assertFalse(failure instanceof WorkerBusyException);
+        assertEquals("Worker " + worker().getId() + " refused the job: HTTP 403", failure.getMessage());
+    }
+
+    @Test
+    void badRequestIsTheClientsError() {
+        respond(400, "Invalid routing mode 'fastest'. Use 'auto', 'ch' or 'lm'.", 0);
+
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                () -> worker().solve(SolveKind.VRP, new TspRequest()));
+
+        assertEquals("Invalid routing mode 'fastest'. Use 'auto', 'ch' or 'lm'.", failure.getMessage());
+    }
+
+    @Test
+    void timeoutIsTerminalForTheJob() {
+        respond(200, "{}", 2_000);
+
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> worker().solve(SolveKind.VRP, new TspRequest()));
+
+        assertFalse(failure instanceof WorkerUnavailableException, "timeout would be re-dispatched: " + failure);
+        assertInstanceOf(HttpTimeoutException.class, failure.getCause());
+    }
+
+    private RemoteSolveWorker worker() {
+        return new RemoteSolveWorker("http://localhost:" + server.getAddress().getPort(), 4, Duration.ofMillis(500), "s3cret",
+                HttpClient.newHttpClient());
+    }
+
+    private void respond(int status, String body, long delayMs) {
+        server.createContext("/internal/solve/", exchange -> {
+            presentedSecret.set(exchange.getRequestHeaders().getFirst(RemoteSolveWorker.SECRET_HEADER));
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            } catch (IOException e) {
+                // Client gave up waiting
+            }
+        });
+    }
+
+    private static HttpServer start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new RuntimeException("Error starting test worker: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.VrpRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RequestFingerprintTests {
+
+    @Test
+    void reorderedListsKeepTheFingerprint() {
+        VrpRequest request = request(service("s0", "outlet 0"), service("s1", "outlet 1"));
+        VrpRequest reordered = request(service("s1", "outlet 1"), service("s0", "outlet 0"));
+
+        assertEquals(RequestFingerprint.of("a", request), RequestFingerprint.of("a", reordered));
+    }
+
+    @Test
+    void freeTextCannotShiftIntoOtherFields() {
+        // Both printed "VrpService(id=s0, name=a, name=b, ...)" by Lombok's toString
+        VrpRequest idWithSeparator = request(service("s0, name=a", "b"));
+        VrpRequest nameWithSeparator = request(service("s0", "a, name=b"));
+
+        assertNotEquals(RequestFingerprint.of("a", idWithSeparator), RequestFingerprint.of("a", nameWithSeparator));
+    }
+
+    @Test
+    void freeTextCannotSplitOneElementIntoTwo() {
+        VrpRequest two = request(service("s0", "a"), service("s1", "b"));
+        VrpRequest one = request(service("s0", "a;" + two.getServices().get(1)));
+
+        assertNotEquals(RequestFingerprint.of("a", two), RequestFingerprint.of("a", one));
+    }
+
+    @Test
+    void tenantsNeverShareAKey() {
+        VrpRequest request = request(service("s0", "outlet 0"));
+
+        assertNotEquals(RequestFingerprint.of("a", request), RequestFingerprint.of("b", request));
+    }
+
+    private static VrpRequest request(VrpRequest.VrpService... services) {
+        VrpRequest.VehicleType type = new VrpRequest.VehicleType();
+        type.setTypeId("small");
+        type.setCapacity(2);
+        VrpRequest.Vehicle vehicle = new VrpRequest.Vehicle();
+        vehicle.setVehicleId("van");
+        vehicle.setTypeId("small");
+        vehicle.setStartAddress(new VrpRequest.Vehicle.StartAddress("depot", 0, 0));
+
+        VrpRequest request = new VrpRequest();
+        request.setVehicleTypes(List.of(type));
+        request.setVehicles(List.of(vehicle));
+        request.setServices(List.of(services));
+        return request;
+    }
+
+    private static VrpRequest.VrpService service(String id, String name) {
+        VrpRequest.VrpService service = new VrpRequest.VrpService();
+        service.setId(id);
+        service.setName(name);
+        service.setAddress(new VrpRequest.VrpService.Address("l0", 1, 0));
+        service.setSize(1);
+        return service;
+    }
+
+}
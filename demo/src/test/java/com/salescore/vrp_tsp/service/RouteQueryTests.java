@@ -0,0 +1,97 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.GHRequest;
+import com.graphhopper.util.Parameters;
+import com.salescore.vrp_tsp.model.Routing;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteQueryTests {
+
+    private static final String[] LOCATION_IDS = {"depot", "a", "b"};
+    private static final double[] LAT = {52.0, 52.1, 52.2};
+    private static final double[] LON = {13.0, 13.1, 13.2};
+
+    @Test
+    void plainRequestsRunOnContractionHierarchies() {
+        assertSame(RouteQuery.DEFAULT, RouteQuery.of(null, LOCATION_IDS));
+
+        RouteQuery query = RouteQuery.of(routing("auto", null, null, null), LOCATION_IDS);
+        GHRequest request = query.request(0, 2, LAT, LON);
+
+        assertTrue(query.isPlain());
+        assertEquals(RouteQuery.CH_PROFILE, request.getProfile());
+        assertFalse(request.getHints().getBool(Parameters.CH.DISABLE, false));
+        assertEquals(52.2, request.getPoints().get(1).lat);
+        assertTrue(request.getHeadings().isEmpty());
+    }
+
+    @Test
+    void snapPreventionsStayOnContractionHierarchiesButAreNotShared() {
+        RouteQuery query = RouteQuery.of(routing(null, List.of("tunnel"), null, null), LOCATION_IDS);
+        GHRequest request = query.request(0, 1, LAT, LON);
+
+        assertFalse(query.isFlexible());
+        assertFalse(query.isPlain());
+        assertEquals(RouteQuery.CH_PROFILE, request.getProfile());
+        assertEquals(List.of("tunnel"), request.getSnapPreventions());
+    }
+
+    @Test
+    void avoidedRoadClassesSwitchToTheFlexibleProfile() {
+        RouteQuery query = RouteQuery.of(routing("auto", null, List.of("motorway"), null), LOCATION_IDS);
+        GHRequest request = query.request(0, 1, LAT, LON);
+
+        assertTrue(query.isFlexible());
+        assertEquals(RouteQuery.FLEXIBLE_PROFILE, request.getProfile());
+        assertTrue(request.getHints().getBool(Parameters.CH.DISABLE, false));
+        assertNotNull(request.getCustomModel());
+        assertTrue(request.getCustomModel().getPriority().get(0).getCondition().contains("MOTORWAY"));
+    }
+
+    @Test
+    void headingsFollowTheLocationIds() {
+        RouteQuery query = RouteQuery.of(routing(null, null, null, Map.of("b", 90.0)), LOCATION_IDS);
+
+        assertEquals(List.of(Double.NaN, 90.0), query.request(1, 2, LAT, LON).getHeadings());
+        assertEquals(List.of(90.0, Double.NaN), query.request(2, 0, LAT, LON).getHeadings());
+        assertNull(query.request(0, 1, LAT, LON).getCustomModel());
+    }
+
+    @Test
+    void lmModeForcesTheFlexibleProfile() {
+        RouteQuery query = RouteQuery.of(routing("LM", null, null, null), LOCATION_IDS);
+
+        assertTrue(query.isFlexible());
+        assertEquals(RouteQuery.FLEXIBLE_PROFILE, query.request(0, 1, LAT, LON).getProfile());
+    }
+
+    @Test
+    void invalidOptionsAreRejected() {
+        IllegalArgumentException ch = assertThrows(IllegalArgumentException.class,
+                () -> RouteQuery.of(routing("ch", null, List.of("motorway"), null), LOCATION_IDS));
+        assertEquals("Routing mode 'ch' does not support avoidRoadClasses or headings, use 'lm' or 'auto'.", ch.getMessage());
+
+        IllegalArgumentException mode = assertThrows(IllegalArgumentException.class,
+                () -> RouteQuery.of(routing("dijkstra", null, null, null), LOCATION_IDS));
+        assertEquals("Invalid routing mode 'dijkstra'. Use 'auto', 'ch' or 'lm'.", mode.getMessage());
+
+        IllegalArgumentException roadClass = assertThrows(IllegalArgumentException.class,
+                () -> RouteQuery.of(routing(null, null, List.of("highway"), null), LOCATION_IDS));
+        assertEquals("Unknown road class 'highway'.", roadClass.getMessage());
+    }
+
+    private static Routing routing(String mode, List<String> snapPreventions, List<String> avoidRoadClasses, Map<String, Double> headings) {
+        return new Routing(false, false, snapPreventions, mode, avoidRoadClasses, headings);
+    }
+}
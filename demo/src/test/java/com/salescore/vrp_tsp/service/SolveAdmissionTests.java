@@ -0,0 +1,185 @@
+package com.salescore.vrp_tsp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveAdmissionTests {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void smallRequestsRunWhileLargeSolvesHoldEverySlot() throws Exception {
+        // 2 global slots, small lane of 2, requests up to 25 locations are small, 100 locations per slot
+        SolveAdmission admission = admission(2, 8, 64, 200);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> admission.run("a", 500, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        long started = System.nanoTime();
+        String small = admission.run("b", 10, () -> "small");
+
+        assertEquals("small", small);
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(100), "small request waited for the large lane");
+    }
+
+    @Test
+    void largeRequestIsRejectedWithRetryHintWhenSlotsStayBusy() throws Exception {
+        SolveAdmission admission = admission(2, 8, 64, 200);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> admission.run("a", 500, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.run("b", 300, () -> "large"));
+
+        assertEquals("Solver capacity exhausted, retry later.", rejected.getMessage());
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        assertEquals(0, admission.queueDepth());
+    }
+
+    @Test
+    void tenantIsCappedOnConcurrentSolves() throws Exception {
+        SolveAdmission admission = admission(8, 1, 64, 200);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> admission.run("a", 10, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.run("a", 10, () -> "second"));
+
+        assertEquals("Too many concurrent solves for tenant a, retry later.", rejected.getMessage());
+        assertEquals("other", admission.run("b", 10, () -> "other"));
+    }
+
+    @Test
+    void unknownApiKeysShareTheDefaultTenant() throws Exception {
+        SolveAdmission admission = admission(8, 1, 64, 200);
+        assertEquals("a", admission.tenant("key-a"));
+        assertEquals(SolveAdmission.DEFAULT_TENANT, admission.tenant(null));
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> admission.run(admission.tenant("rotated-1"), 10, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // Rotating the key does not buy another tenant's slots
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.run(admission.tenant("rotated-2"), 10, () -> "second"));
+
+        assertEquals("Too many concurrent solves for tenant default, retry later.", rejected.getMessage());
+    }
+
+    @Test
+    void interruptedWaitIsACancellationNotARejection() throws Exception {
+        SolveAdmission admission = admission(8, 1, 64, 5_000);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> admission.run("a", 10, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        FutureTask<String> waiting = new FutureTask<>(() -> admission.run("a", 10, () -> "second"));
+        Thread caller = new Thread(waiting);
+        caller.start();
+        while (admission.queueDepth() == 0) {
+            Thread.sleep(5);
+        }
+        caller.interrupt();
+        caller.join(5_000);
+
+        Exception failure = assertThrows(Exception.class, waiting::get);
+        assertTrue(failure.getCause() instanceof CancellationException, failure.toString());
+        assertEquals(0, admission.queueDepth());
+    }
+
+    @Test
+    void tenantOverItsSolverTimeBudgetIsRejected() {
+        // 0.01 solver seconds per minute: a 50 ms solve overdraws it for minutes
+        SolveAdmission admission = new SolveAdmission(new SimpleMeterRegistry(), 8, 4, 64, 200, 25, 2, 100,
+                List.of("a:key-a", "b:key-b"), 0.01);
+        admission.run("a", 10, () -> sleep(50));
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.run("a", 10, () -> "again"));
+
+        assertEquals("Solver time budget of tenant a used up, retry later.", rejected.getMessage());
+        assertTrue(rejected.getRetryAfterSeconds() > 60);
+        assertEquals("other", admission.run("b", 10, () -> "other"));
+    }
+
+    @Test
+    void burstNeverQueuesMoreThanMaxQueue() throws Exception {
+        int maxQueue = 4;
+        SolveAdmission admission = admission(1, 64, maxQueue, 300);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> admission.run("a", 500, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger queueFull = new AtomicInteger();
+        AtomicInteger timedOut = new AtomicInteger();
+        List<Future<?>> burst = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String tenant = "t" + i;
+            burst.add(callers.submit(() -> {
+                go.await();
+                try {
+                    admission.run(tenant, 500, () -> "large");
+                } catch (AdmissionRejectedException e) {
+                    (e.getMessage().startsWith("Solver queue is full") ? queueFull : timedOut).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> request : burst) {
+            request.get(10, TimeUnit.SECONDS);
+        }
+
+        assertTrue(timedOut.get() <= maxQueue, timedOut.get() + " requests were queued with max-queue " + maxQueue);
+        assertEquals(64, queueFull.get() + timedOut.get());
+    }
+
+    private SolveAdmission admission(int globalSlots, int perTenant, int maxQueue, long maxWaitMs) {
+        return new SolveAdmission(new SimpleMeterRegistry(), globalSlots, perTenant, maxQueue, maxWaitMs, 25, 2, 100,
+                List.of("a:key-a", "b:key-b"), 0);
+    }
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "slept";
+    }
+
+    private String block(CountDownLatch running) {
+        running.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "blocked";
+    }
+}
@@ -0,0 +1,131 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.VrpRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SolveDispatcherTests {
+
+    private final FakeWorker first = new FakeWorker("first");
+    private final FakeWorker second = new FakeWorker("second");
+    private final SolveDispatcher dispatcher = new SolveDispatcher(List.of(first, second), new SimpleMeterRegistry(), 3, 0);
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void busyWorkerPassesTheJobOnAndStaysInRotation() {
+        first.outcomes.add(() -> {
+            throw new WorkerBusyException("Worker first is busy");
+        });
+
+        assertEquals("second", dispatcher.solve(SolveKind.VRP, "job"));
+        assertEquals("first", dispatcher.solve(SolveKind.VRP, "job"));
+    }
+
+    @Test
+    void droppedWorkerIsTakenOutOfRotation() {
+        first.outcomes.add(() -> {
+            throw new WorkerUnavailableException("Worker first unavailable: Connection reset", null);
+        });
+
+        assertEquals("second", dispatcher.solve(SolveKind.VRP, "job"));
+        assertEquals("second", dispatcher.solve(SolveKind.VRP, "job"));
+        assertEquals(1, first.calls);
+    }
+
+    @Test
+    void timedOutJobIsNotRedispatched() {
+        first.outcomes.add(() -> {
+            throw new RuntimeException("Error solving on worker first: no response within 600 s");
+        });
+
+        assertThrows(RuntimeException.class, () -> dispatcher.solve(SolveKind.VRP, "job"));
+        assertEquals(0, second.calls);
+        assertEquals("first", dispatcher.solve(SolveKind.VRP, "job"));
+    }
+
+    @Test
+    void everyWorkerBusyIsRejectedWithRetryHint() {
+        first.outcomes.add(() -> {
+            throw new WorkerBusyException("Worker first is busy");
+        });
+        second.outcomes.add(() -> {
+            throw new WorkerBusyException("Worker second is busy");
+        });
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class, () -> dispatcher.solve(SolveKind.VRP, "job"));
+
+        assertEquals("No solve worker available: Worker second is busy", rejected.getMessage());
+        assertEquals("first", dispatcher.solve(SolveKind.VRP, "job"));
+    }
+
+    @Test
+    void localWorkerOutOfMemoryPassesTheJobOn() throws Exception {
+        SolveResultCache cache = new SolveResultCache(1000, 600, 1 << 20, 0.05);
+        MemoryBudget budget = new MemoryBudget(mock(GraphReloader.class), cache, new SimpleMeterRegistry(), 0, 16, 2000);
+        SolverExecutor solverExecutor = mock(SolverExecutor.class);
+        when(solverExecutor.getThreads()).thenReturn(4);
+        LocalSolveWorker local = new LocalSolveWorker(null, null, null, solverExecutor, budget, 0);
+        SolveDispatcher withLocal = new SolveDispatcher(List.of(local, second), new SimpleMeterRegistry(), 3, 0);
+        // An oversized solve holds the whole budget, so the local worker cannot reserve memory
+        assertTrue(budget.reserve(2 * budget.solverBudgetBytes(), System.nanoTime()));
+        VrpRequest request = new VrpRequest();
+        request.setVehicles(List.of(new VrpRequest.Vehicle()));
+
+        try {
+            assertEquals("second", withLocal.solve(SolveKind.VRP, request));
+            assertEquals(1, second.calls);
+        } finally {
+            withLocal.shutdown();
+            cache.shutdown();
+        }
+    }
+
+    // Answers with its id unless a queued outcome says otherwise
+    private static final class FakeWorker implements SolveWorker {
+        private final String id;
+        private final Deque<Supplier<String>> outcomes = new ArrayDeque<>();
+        private int calls;
+
+        private FakeWorker(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public int getCapacity() {
+            return 1;
+        }
+
+        @Override
+        public String solve(SolveKind kind, Object request) {
+            calls++;
+            Supplier<String> outcome = outcomes.poll();
+            return outcome != null ? outcome.get() : id;
+        }
+
+        @Override
+        public boolean checkHealth() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.salescore.vrp_tsp.service;
+
+import com.salescore.vrp_tsp.model.TspRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SolvePersistenceTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SolvePersistence persistence = new SolvePersistence(jdbcTemplate, registry, true, 100, 500, 10, 500, 1_000);
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        persistence.shutdown();
+    }
+
+    @Test
+    void startsWithoutTouchingTheDatabase() throws Exception {
+        Thread.sleep(100);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void planIsKeptAndRetriedWhileTheDatabaseIsDown() {
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<Object[]>anyList()))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .thenReturn(new int[]{1});
+
+        UUID id = persistence.recordPlan("vrp", "fp", Map.of(), "{\"solution\":{}}");
+
+        assertEquals("{\"solution\":{}}", persistence.findPlan(id).orElseThrow());
+        verify(jdbcTemplate, timeout(5_000).times(3)).batchUpdate(anyString(), ArgumentMatchers.<Object[]>anyList());
+        assertEquals(0, registry.counter("persistence.records.dropped").count());
+    }
+
+    @Test
+    void rejectedBatchOnlyDropsTheRejectedRecord() {
+        List<String> written = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<Object[]>anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> "bad".equals(row[2]))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(64)");
+            }
+            rows.forEach(row -> written.add((String) row[2]));
+            return new int[rows.size()];
+        });
+
+        persistence.recordPlan("vrp", "good", Map.of(), "{\"solution\":{}}");
+        persistence.recordPlan("vrp", "bad", Map.of(), "{\"solution\":{}}");
+
+        verify(jdbcTemplate, timeout(5_000).atLeast(2)).batchUpdate(anyString(), ArgumentMatchers.<Object[]>anyList());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (registry.counter("persistence.records.dropped").count() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, registry.counter("persistence.records.dropped").count());
+        assertEquals(List.of("good"), written);
+    }
+
+    @Test
+    void lookupFindsNothingWhileTheDatabaseIsDown() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"));
+
+        assertTrue(persistence.findPlan(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void matricesBeyondTheByteBudgetAreDropped() {
+        // 10 locations take 1,600 bytes, over the 1,000 byte budget; 5 locations take 400
+        persistence.recordMatrix("tsp-car-fastest", "v1", index(10), new ConstantMatrix(10));
+        persistence.recordMatrix("tsp-car-fastest", "v1", index(5), new ConstantMatrix(5));
+
+        assertEquals(1, registry.counter("persistence.records.dropped").count());
+        // Schema and the one matrix that fit
+        verify(jdbcTemplate, timeout(5_000).times(2)).execute(any(ConnectionCallback.class));
+    }
+
+    private static ProblemIndex index(int size) {
+        List<TspRequest.ServiceLocation> services = new ArrayList<>();
+        for (int s = 1; s < size; s++) {
+            services.add(new TspRequest.ServiceLocation("s" + s, new TspRequest.ServiceLocation.Address("l" + s, null, s, s)));
+        }
+        return ProblemIndex.of(new TspRequest(new TspRequest.Vehicle("van", new TspRequest.Vehicle.StartAddress("depot", null, 0, 0)),
+                services, null));
+    }
+
+    private record ConstantMatrix(int size) implements TravelMatrix {
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public double distance(int from, int to) {
+            return from == to ? 0 : 1_000;
+        }
+
+        @Override
+        public double duration(int from, int to) {
+            return from == to ? 0 : 100;
+        }
+
+        @Override
+        public NeighborLists neighbors(int k) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
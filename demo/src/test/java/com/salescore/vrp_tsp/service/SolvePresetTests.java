@@ -0,0 +1,99 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
+import com.graphhopper.jsprit.core.algorithm.SearchStrategyManager;
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.module.RuinAndRecreateModule;
+import com.graphhopper.jsprit.core.algorithm.recreate.RegretInsertionConcurrent;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolvePresetTests {
+
+    @Test
+    void namesAreCaseInsensitiveAndFallBackToTheConfiguredDefault() {
+        assertSame(SolvePreset.FAST, SolvePreset.of("Fast", "balanced"));
+        assertSame(SolvePreset.THOROUGH, SolvePreset.of("THOROUGH", "fast"));
+        assertSame(SolvePreset.BALANCED, SolvePreset.of(null, "balanced"));
+        assertEquals("thorough", SolvePreset.THOROUGH.getName());
+    }
+
+    @Test
+    void unknownNameIsRejected() {
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class, () -> SolvePreset.of("quick", "balanced"));
+
+        assertEquals("Invalid preset 'quick'. Use 'fast', 'balanced' or 'thorough'.", invalid.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> SolvePreset.of(null, "slow"));
+    }
+
+    @Test
+    void balancedKeepsTheConfiguredDefaults() {
+        VehicleRoutingProblem problem = problem();
+        Jsprit.Builder builder = Jsprit.Builder.newInstance(problem);
+        SolvePreset.BALANCED.configure(builder);
+
+        SearchStrategyManager configured = builder.buildAlgorithm().getSearchStrategyManager();
+        SearchStrategyManager plain = Jsprit.Builder.newInstance(problem).buildAlgorithm().getSearchStrategyManager();
+
+        for (Jsprit.Strategy strategy : Jsprit.Strategy.values()) {
+            assertEquals(plain.getWeight(strategy.toString()), configured.getWeight(strategy.toString()), 1e-9, strategy.toString());
+        }
+        assertNull(SolvePreset.BALANCED.getVrpIterations());
+        assertNull(SolvePreset.BALANCED.getVrpTimeLimitMs());
+        assertNull(SolvePreset.BALANCED.getTspTimeLimitMs());
+        assertTrue(SolvePreset.BALANCED.isRandomizedConstruction());
+        assertTrue(SolvePreset.BALANCED.isOrOpt());
+    }
+
+    @Test
+    void fastSwitchesOffTheRegretStrategies() {
+        Jsprit.Builder builder = Jsprit.Builder.newInstance(problem());
+        SolvePreset.FAST.configure(builder);
+
+        SearchStrategyManager manager = builder.buildAlgorithm().getSearchStrategyManager();
+
+        assertEquals(0.5, manager.getWeight(Jsprit.Strategy.RADIAL_BEST.toString()), 1e-9);
+        assertEquals(0.2, manager.getWeight(Jsprit.Strategy.WORST_BEST.toString()), 1e-9);
+        for (Jsprit.Strategy regret : new Jsprit.Strategy[]{Jsprit.Strategy.RADIAL_REGRET, Jsprit.Strategy.RANDOM_REGRET,
+                Jsprit.Strategy.WORST_REGRET, Jsprit.Strategy.CLUSTER_REGRET, Jsprit.Strategy.STRING_REGRET}) {
+            assertEquals(0, manager.getWeight(regret.toString()), 1e-9, regret.toString());
+        }
+    }
+
+    @Test
+    void thoroughInsertsOnSeveralThreads() {
+        Jsprit.Builder builder = Jsprit.Builder.newInstance(problem());
+        SolvePreset.THOROUGH.configure(builder);
+
+        VehicleRoutingAlgorithm algorithm = builder.buildAlgorithm();
+
+        SearchStrategy radialRegret = algorithm.getSearchStrategyManager().getStrategies().stream()
+                .filter(strategy -> strategy.getId().equals(Jsprit.Strategy.RADIAL_REGRET.toString()))
+                .findFirst().orElseThrow();
+        RuinAndRecreateModule module = (RuinAndRecreateModule) radialRegret.getSearchStrategyModules().iterator().next();
+        assertTrue(module.getInsertion() instanceof RegretInsertionConcurrent, module.getInsertion().toString());
+        assertEquals(1.0, algorithm.getSearchStrategyManager().getWeight(Jsprit.Strategy.STRING_REGRET.toString()), 1e-9);
+        // Runs once so the algorithm shuts down the insertion threads jsprit started for it
+        algorithm.setMaxIterations(1);
+        algorithm.searchSolutions();
+    }
+
+    private static VehicleRoutingProblem problem() {
+        VehicleRoutingProblem.Builder problem = VehicleRoutingProblem.Builder.newInstance()
+                .addVehicle(VehicleImpl.Builder.newInstance("van").setStartLocation(Location.newInstance(0, 0)).build());
+        for (int s = 1; s <= 4; s++) {
+            problem.addJob(Service.Builder.newInstance("s" + s).setLocation(Location.newInstance(s, 0)).build());
+        }
+        return problem.build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.salescore.vrp_tsp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveResultCacheTests {
+
+    private final SolveResultCache cache = new SolveResultCache(1000, 600, 1 << 20, 0.05);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+        cache.shutdown();
+    }
+
+    @Test
+    void identicalRequestsSolveOnceAndHitTheCacheAfterwards() throws Exception {
+        AtomicInteger solves = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<SolvedPlan> solver = blocking(solves, new CountDownLatch(1), release, "plan");
+
+        Future<SolvedPlan> first = callers.submit(() -> cache.getOrCompute("fp", solver));
+        Future<SolvedPlan> second = callers.submit(() -> cache.getOrCompute("fp", solver));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals("plan", first.get(5, TimeUnit.SECONDS).response());
+        assertSame(first.get(), second.get());
+        // A cache hit answers with the plan id of the original solve
+        assertSame(first.get(), cache.getOrCompute("fp", solver));
+        assertEquals(1, solves.get());
+    }
+
+    @Test
+    void cancelledLeaderDoesNotFailTheDuplicate() throws Exception {
+        AtomicInteger solves = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<SolvedPlan> solver = blocking(solves, started, release, "plan");
+
+        Future<SolvedPlan> leader = callers.submit(() -> cache.getOrCompute("fp", solver));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<SolvedPlan> duplicate = callers.submit(() -> cache.getOrCompute("fp", solver));
+        Thread.sleep(100);
+
+        // Client of the first request disconnects: its request thread is interrupted
+        leader.cancel(true);
+        release.countDown();
+
+        assertEquals("plan", duplicate.get(5, TimeUnit.SECONDS).response());
+        assertEquals(1, solves.get());
+        assertEquals(0, cache.inFlightCount());
+    }
+
+    @Test
+    void computationIsCancelledWhenEveryCallerIsCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        Supplier<SolvedPlan> solver = () -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+                interrupted.complete(false);
+            } catch (InterruptedException e) {
+                interrupted.complete(true);
+                throw new CancellationException("Solve cancelled by caller");
+            }
+            return plan("plan");
+        };
+
+        Future<SolvedPlan> leader = callers.submit(() -> cache.getOrCompute("fp", solver));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        leader.cancel(true);
+
+        assertTrue(interrupted.get(5, TimeUnit.SECONDS));
+        assertEquals("again", cache.getOrCompute("fp", () -> plan("again")).response());
+    }
+
+    @Test
+    void failuresAreSharedButNotCached() throws Exception {
+        AtomicInteger solves = new AtomicInteger();
+        Supplier<SolvedPlan> failing = () -> {
+            solves.incrementAndGet();
+            throw new IllegalArgumentException("Invalid request");
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getOrCompute("fp", failing));
+        assertThrows(IllegalArgumentException.class, () -> cache.getOrCompute("fp", failing));
+        assertEquals(2, solves.get());
+    }
+
+    private static Supplier<SolvedPlan> blocking(AtomicInteger solves, CountDownLatch started, CountDownLatch release, String result) {
+        return () -> {
+            solves.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Solve cancelled by caller");
+            }
+            return plan(result);
+        };
+    }
+
+    private static SolvedPlan plan(String response) {
+        return new SolvedPlan(UUID.randomUUID(), response);
+    }
+}
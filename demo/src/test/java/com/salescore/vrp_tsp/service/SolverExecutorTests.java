@@ -0,0 +1,62 @@
+package com.salescore.vrp_tsp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolverExecutorTests {
+
+    // One thread for large solves, two for the small lane, requests up to 25 locations are small
+    private final SolverExecutor solverExecutor = new SolverExecutor(1, 25, 2);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        callers.shutdownNow();
+        solverExecutor.shutdown();
+    }
+
+    @Test
+    void smallSolvesDoNotQueueBehindLargeOnes() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> solverExecutor.call(500, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        Future<String> small = callers.submit(() -> solverExecutor.call(10, () -> Thread.currentThread().getName()));
+
+        assertTrue(small.get(1, TimeUnit.SECONDS).startsWith("solver-small-"));
+    }
+
+    @Test
+    void interruptedCallerCancelsTheSolve() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        Future<String> large = callers.submit(() -> solverExecutor.call(500, () -> block(running)));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        large.cancel(true);
+
+        // The single large thread is free again once the solve saw its interrupt
+        assertEquals("next", callers.submit(() -> solverExecutor.call(500, () -> "next")).get(5, TimeUnit.SECONDS));
+    }
+
+    private String block(CountDownLatch running) {
+        running.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new CancellationException("Solve cancelled by caller");
+        }
+        return "large";
+    }
+}
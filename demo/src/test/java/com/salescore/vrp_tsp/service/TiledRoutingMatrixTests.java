@@ -0,0 +1,153 @@
+package com.salescore.vrp_tsp.service;
+
+import com.graphhopper.GHRequest;
+import com.graphhopper.GHResponse;
+import com.graphhopper.GraphHopper;
+import com.graphhopper.ResponsePath;
+import com.graphhopper.util.shapes.GHPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TiledRoutingMatrixTests {
+
+    private static final int SIZE = 40;
+    private static final int DEPOTS = 2;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ExecutorService readers = Executors.newFixedThreadPool(8);
+    private final double[] lat = new double[SIZE];
+    private final double[] lon = new double[SIZE];
+    private final PlaneMatrix plane = new PlaneMatrix(lat, lon);
+    private final Map<String, AtomicInteger> routed = new ConcurrentHashMap<>();
+    private final RoutingEngine.Lease lease = mock(RoutingEngine.Lease.class);
+
+    @BeforeEach
+    void graph() {
+        Random random = new Random(11);
+        for (int i = 0; i < SIZE; i++) {
+            lat[i] = random.nextDouble();
+            lon[i] = random.nextDouble();
+        }
+        // Straight-line routes like PlaneMatrix, counting how often each pair is routed
+        GraphHopper hopper = mock(GraphHopper.class);
+        when(hopper.route(any())).thenAnswer(invocation -> {
+            List<GHPoint> points = invocation.<GHRequest>getArgument(0).getPoints();
+            String pair = points.get(0).lat + "," + points.get(0).lon + "->" + points.get(1).lat + "," + points.get(1).lon;
+            routed.computeIfAbsent(pair, p -> new AtomicInteger()).incrementAndGet();
+            double meters = 1_000 * Math.hypot(points.get(1).lon - points.get(0).lon, points.get(1).lat - points.get(0).lat);
+            GHResponse response = new GHResponse();
+            response.add(new ResponsePath().setDistance(meters).setTime((long) (meters / 10 * 1000)));
+            return response;
+        });
+        when(lease.hopper()).thenReturn(hopper);
+    }
+
+    @AfterEach
+    void shutdown() {
+        readers.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void everyPairReadsItsRoute() {
+        for (TiledRoutingMatrix.Storage storage : TiledRoutingMatrix.Storage.values()) {
+            try (TiledRoutingMatrix matrix = compute(storage)) {
+                int upFront = matrix.getRoutedTiles();
+                assertTrue(upFront < matrix.getTileCount(), storage + " routed every tile up front");
+
+                for (int from = 0; from < SIZE; from++) {
+                    for (int to = 0; to < SIZE; to++) {
+                        assertEquals(plane.distance(from, to), matrix.distance(from, to), 0.05, storage + " " + from + "->" + to);
+                        assertEquals(plane.duration(from, to), matrix.duration(from, to), 0.1, storage + " " + from + "->" + to);
+                    }
+                }
+                assertTrue(matrix.getRoutedTiles() > upFront);
+            }
+        }
+    }
+
+    @Test
+    void estimatesNeverRoute() {
+        try (TiledRoutingMatrix matrix = compute(TiledRoutingMatrix.Storage.DIRECT)) {
+            int routes = routeCount();
+            int tiles = matrix.getRoutedTiles();
+
+            for (int from = 0; from < SIZE; from++) {
+                for (int to = 0; to < SIZE; to++) {
+                    assertTrue(matrix.estimatedDistance(from, to) >= plane.distance(from, to) - 0.05);
+                }
+            }
+
+            assertEquals(routes, routeCount());
+            assertEquals(tiles, matrix.getRoutedTiles());
+        }
+    }
+
+    @Test
+    void concurrentReadersRouteEachPairOnce() throws Exception {
+        try (TiledRoutingMatrix matrix = compute(TiledRoutingMatrix.Storage.DIRECT)) {
+            List<Future<?>> reads = new ArrayList<>();
+            for (int reader = 0; reader < 8; reader++) {
+                reads.add(readers.submit(() -> {
+                    for (int from = 0; from < SIZE; from++) {
+                        for (int to = 0; to < SIZE; to++) {
+                            matrix.distance(from, to);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> read : reads) {
+                read.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(matrix.getTileCount(), matrix.getRoutedTiles());
+            routed.forEach((pair, count) -> assertEquals(1, count.get(), pair + " routed more than once"));
+        }
+    }
+
+    @Test
+    void offHeapBytesStayCountedUntilTheBuffersAreCollected() throws Exception {
+        long before = TiledRoutingMatrix.offHeapBytes();
+        TiledRoutingMatrix matrix = compute(TiledRoutingMatrix.Storage.DIRECT);
+        // Depot strips alone take 2 * depots * size pairs of 8 bytes
+        assertTrue(TiledRoutingMatrix.offHeapBytes() - before >= 2L * DEPOTS * SIZE * 8);
+
+        matrix.close();
+        matrix = null;
+        // Earlier tests' matrices may be collected in the same run, so the count can drop below the start
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (TiledRoutingMatrix.offHeapBytes() > before && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertTrue(TiledRoutingMatrix.offHeapBytes() <= before, TiledRoutingMatrix.offHeapBytes() + " bytes still counted");
+    }
+
+    private TiledRoutingMatrix compute(TiledRoutingMatrix.Storage storage) {
+        return TiledRoutingMatrix.compute(lease, lat, lon, RouteQuery.DEFAULT, pool, DEPOTS, 4, storage, 3);
+    }
+
+    private int routeCount() {
+        return routed.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+}
@@ -0,0 +1,195 @@
+package com.salescore.vrp_tsp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salescore.vrp_tsp.model.VRPSolutionResponse;
+import com.salescore.vrp_tsp.model.VrpRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VrpServiceTests {
+
+    private final VrpService service = new VrpService(null, null, null, false, 40, 200, "fast", 2000, 64, "direct");
+
+    @Test
+    void tripsOfOneVehicleRunOneAfterAnother() throws Exception {
+        // Capacity 2 and six unit services: the vehicle has to go out three times
+        VrpRequest request = request(null, null, 3, 6);
+
+        VRPSolutionResponse.Solution solution = solve(request);
+
+        assertTrue(solution.getUnassigned().isEmpty(), "unassigned: " + solution.getUnassigned());
+        assertEquals(3, solution.getRoutes().size());
+        assertSequential(solution.getRoutes());
+    }
+
+    @Test
+    void costsArePricedOnTheTripsKept() throws Exception {
+        // Unit cost per meter and no fixed costs: with every job served the costs are the distance driven
+        VRPSolutionResponse.Solution served = solve(request(null, null, 3, 6));
+        assertTrue(served.getUnassigned().isEmpty());
+        assertEquals(served.getDistance(), served.getCosts(), 1e-6);
+
+        // Two trips for six jobs: only the two jobs still open after the last trip add a penalty
+        VRPSolutionResponse.Solution partial = solve(request(null, null, 2, 6));
+        assertEquals(2, partial.getUnassigned().size());
+        assertTrue(partial.getCosts() > partial.getDistance());
+        VRPSolutionResponse.Solution single = solve(request(null, null, 1, 6));
+        assertEquals(4, single.getUnassigned().size());
+        assertTrue(partial.getCosts() < single.getCosts());
+    }
+
+    @Test
+    void tripsStayInsideTheShift() throws Exception {
+        // Four trips of about 400 s in a 2,100 s shift
+        VrpRequest request = request(1_000L, 3_100L, 4, 8);
+
+        VRPSolutionResponse.Solution solution = solve(request);
+
+        assertTrue(solution.getUnassigned().isEmpty(), "unassigned: " + solution.getUnassigned());
+        assertSequential(solution.getRoutes());
+        for (VRPSolutionResponse.Solution.Route route : solution.getRoutes()) {
+            assertTrue(first(route).getEndTime() >= 1_000L);
+            assertTrue(last(route).getArriveTime() <= 3_100L);
+        }
+    }
+
+    @Test
+    void requestWithOnlyInfeasibleJobsSkipsTheSearch() throws Exception {
+        VrpRequest request = request(null, null, 1, 3);
+        request.getServices().forEach(service -> service.setRequiredSkills(List.of("refrigerated")));
+
+        VRPSolutionResponse.Solution solution = solve(request);
+
+        assertTrue(solution.getRoutes().isEmpty());
+        assertEquals(0, solution.getNoVehicles());
+        assertEquals(3, solution.getUnassigned().size());
+        for (VRPSolutionResponse.Solution.UnassignedJob job : solution.getUnassigned()) {
+            assertEquals(FeasibilityCheck.SKILL_CONSTRAINT, job.getCode());
+            assertTrue(job.isPreSolve());
+        }
+    }
+
+    @Test
+    void timeWindowsAreAppliedWhenOnlyShipmentsOrWindowEndsAreGiven() throws Exception {
+        // The service window only has an end, before the 100 s drive; the shipment carries the only window start
+        VrpRequest request = request(null, null, 1, 1);
+        request.getServices().get(0).setTimewindow(new VrpRequest.VrpService.TimeWindow(null, 50L));
+        VrpRequest.VrpService.Address address = new VrpRequest.VrpService.Address("l9", 1, 0);
+        request.setShipments(List.of(new VrpRequest.VrpShipment("p1", "parcel", 1, null, null,
+                new VrpRequest.VrpShipment.Stop(address, 0L, new VrpRequest.VrpService.TimeWindow(500L, null)),
+                new VrpRequest.VrpShipment.Stop(address, 0L, null))));
+
+        VRPSolutionResponse.Solution solution = solve(request);
+
+        assertEquals(1, solution.getUnassigned().size());
+        assertEquals("s0", solution.getUnassigned().get(0).getId());
+        assertEquals(FeasibilityCheck.TIME_WINDOW_CONSTRAINT, solution.getUnassigned().get(0).getCode());
+        VRPSolutionResponse.Solution.Route.Activity pickup = solution.getRoutes().get(0).getActivities().get(1);
+        assertEquals("pickup", pickup.getType());
+        assertTrue(pickup.getEndTime() >= 500L);
+    }
+
+    @Test
+    void neighbourPruningStillAssignsEveryJob() throws Exception {
+        // Pruning from the first job on, with only the 2 nearest locations as neighbours
+        VrpService pruning = new VrpService(null, null, null, false, 2, 1, "fast", 2000, 64, "direct");
+        VrpRequest request = request(null, null, 3, 6);
+
+        VRPSolutionResponse.Solution solution = solve(pruning, request);
+
+        assertTrue(solution.getUnassigned().isEmpty(), "unassigned: " + solution.getUnassigned());
+        assertEquals(3, solution.getRoutes().size());
+        assertSequential(solution.getRoutes());
+    }
+
+    @Test
+    void secondCapacityDimensionAndServiceTimesAreHonoured() throws Exception {
+        // Room for 10 by weight but 1 by volume: each van takes one of the two services
+        VrpRequest request = new VrpRequest();
+        request.setVehicleTypes(List.of(new VrpRequest.VehicleType("box", 0, List.of(10, 1), null)));
+        request.setVehicles(List.of(vehicle("van1", "box", null), vehicle("van2", "box", null)));
+        request.setServices(List.of(
+                new VrpRequest.VrpService("s0", "outlet 0", new VrpRequest.VrpService.Address("l0", 1, 0), 0, List.of(1, 1), 60L, null, null),
+                new VrpRequest.VrpService("s1", "outlet 1", new VrpRequest.VrpService.Address("l1", 2, 0), 0, List.of(1, 1), 60L, null, null)));
+
+        VRPSolutionResponse.Solution solution = solve(request);
+
+        assertTrue(solution.getUnassigned().isEmpty(), "unassigned: " + solution.getUnassigned());
+        assertEquals(2, solution.getRoutes().size());
+        for (VRPSolutionResponse.Solution.Route route : solution.getRoutes()) {
+            VRPSolutionResponse.Solution.Route.Activity visit = route.getActivities().get(1);
+            assertEquals(List.of(1, 1), visit.getLoadsAfter());
+            assertEquals(60L, visit.getServiceTime());
+            assertTrue(visit.getEndTime() - visit.getArriveTime() >= 60L);
+        }
+    }
+
+    @Test
+    void jobsWithSkillsGoToVehiclesThatHaveThem() throws Exception {
+        VrpRequest request = request(null, null, 1, 1);
+        request.setVehicles(List.of(vehicle("van", "small", null), vehicle("fridge", "small", List.of("refrigerated"))));
+        request.getServices().get(0).setRequiredSkills(List.of("refrigerated"));
+
+        VRPSolutionResponse.Solution solution = solve(request);
+
+        assertTrue(solution.getUnassigned().isEmpty(), "unassigned: " + solution.getUnassigned());
+        assertEquals(1, solution.getRoutes().size());
+        assertEquals("fridge", solution.getRoutes().get(0).getVehicleId());
+    }
+
+    private VRPSolutionResponse.Solution solve(VrpRequest request) throws Exception {
+        return solve(service, request);
+    }
+
+    private static VRPSolutionResponse.Solution solve(VrpService service, VrpRequest request) throws Exception {
+        ProblemIndex index = ProblemIndex.of(request);
+        String json = service.solve(request, index, new PlaneMatrix(index.getLat(), index.getLon()), SolvePreset.FAST, System.nanoTime());
+        return new ObjectMapper().readValue(json, VRPSolutionResponse.class).getSolution();
+    }
+
+    private static void assertSequential(List<VRPSolutionResponse.Solution.Route> routes) {
+        List<VRPSolutionResponse.Solution.Route> trips = new ArrayList<>(routes);
+        trips.sort(Comparator.comparingInt(VRPSolutionResponse.Solution.Route::getTrip));
+        for (int t = 0; t < trips.size(); t++) {
+            assertEquals("van", trips.get(t).getVehicleId());
+            assertEquals(t + 1, trips.get(t).getTrip());
+            if (t > 0) {
+                assertTrue(first(trips.get(t)).getEndTime() >= last(trips.get(t - 1)).getArriveTime(),
+                        "trip " + (t + 1) + " leaves before trip " + t + " is back");
+            }
+        }
+    }
+
+    private static VRPSolutionResponse.Solution.Route.Activity first(VRPSolutionResponse.Solution.Route route) {
+        return route.getActivities().get(0);
+    }
+
+    private static VRPSolutionResponse.Solution.Route.Activity last(VRPSolutionResponse.Solution.Route route) {
+        return route.getActivities().get(route.getActivities().size() - 1);
+    }
+
+    private static VrpRequest.Vehicle vehicle(String id, String type, List<String> skills) {
+        return new VrpRequest.Vehicle(id, type, new VrpRequest.Vehicle.StartAddress("depot", 0, 0), null, null, skills, null);
+    }
+
+    // One vehicle of capacity 2 at the origin, unit-size services 1 km to 2 km east of it
+    private static VrpRequest request(Long startTime, Long endTime, int maxTrips, int services) {
+        VrpRequest request = new VrpRequest();
+        request.setVehicleTypes(List.of(new VrpRequest.VehicleType("small", 2, null, null)));
+        request.setVehicles(List.of(new VrpRequest.Vehicle("van", "small",
+                new VrpRequest.Vehicle.StartAddress("depot", 0, 0), startTime, endTime, null, maxTrips)));
+        List<VrpRequest.VrpService> jobs = new ArrayList<>();
+        for (int s = 0; s < services; s++) {
+            jobs.add(new VrpRequest.VrpService("s" + s, "outlet " + s,
+                    new VrpRequest.VrpService.Address("l" + s, 1 + (s % 2), 0), 1, null, 0L, null, null));
+        }
+        request.setServices(jobs);
+        return request;
+    }
+}